@@ -1,8 +1,26 @@
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import setup.*;
 import algorithms.*;
 import setup.Stack;
+import queries.HullDistance;
+import queries.HullIndex;
+import queries.HullIntersection;
+import queries.HullQueries;
+import queries.RotatingCalipers;
+import service.ApproximateHull;
+import service.BatchHull;
+import service.HullCache;
+import service.HullOptions;
+import service.HullService;
+import service.HullSummary;
+import service.ShardWorker;
+import service.ShardedHull;
+import service.StreamingHull;
+import service.WindowedHull;
+import userinterface.AnimationArea;
+import userinterface.StepTrace;
 
 // enable assertion when running this class
 public class Test {
@@ -24,8 +42,10 @@ public class Test {
         TestPoint.testSlopeTo();
         TestPoint.testBySlope();
         TestPoint.testByXOrder();
+        TestPoint.testOrientation();
         TestSort.testHeap();
         TestSort.testNull();
+        TestSort.testRadix();
         TestStack.testPtStack();
         TestStack.testStack();
         TestLine.testLine();
@@ -33,7 +53,32 @@ public class Test {
         TestLine.testNegativeSlope();
         TestCircularPoint.testCircularPoint();
         TestMedian.testMedian();
+        TestQueries.testHullIndex();
+        TestQueries.testBulk();
+        TestQueries.testCalipers();
+        TestQueries.testHullQueries();
+        TestQueries.testIntersection();
+        TestQueries.testDistance();
         TestConvex.testConvex();
+        TestConvex.testLargeChan();
+        TestConvex.testAutoHull();
+        TestConvex.testGridHull();
+        TestConvex.testRandomizedIncremental();
+        TestConvex.testHullSolvers();
+        TestConvex.testCancellation();
+        TestConvex.testOnlineHull();
+        TestConvex.testConvexLayers();
+        TestTrace.testReplay();
+        TestTrace.testLargeTrace();
+        TestTrace.testLiveHull();
+        TestBatch.testBatch();
+        TestStreaming.testStreaming();
+        TestStreaming.testWindows();
+        TestStreaming.testSummary();
+        TestStreaming.testSharded();
+        TestStreaming.testService();
+        TestStreaming.testCache();
+        TestStreaming.testApproximate();
     }
 
     private static class TestConvex {
@@ -90,11 +135,279 @@ public class Test {
                 assert Arrays.equals(quick, divide);
                 assert Arrays.equals(divide, monotone);
                 assert Arrays.equals(monotone, chan);
+                assert Arrays.equals(chan, marriage);
 
 
                 StringBuilder result = new StringBuilder();
                 for (Point pt : insertPts) result.append(pt);
             }
+
+        public static void testLargeChan() {
+            // enough points for chan's algorithm to restart and to build the sub convex hulls in parallel
+            Point[] insertPts = randomPoints(20000, 5000);
+
+            Point[] monotone = new MonotoneChain(insertPts.clone()).getResult();
+            HeapSort.sort(monotone, Comparator.naturalOrder());
+            ChanAlgorithm chanAlgorithm = new ChanAlgorithm(insertPts.clone());
+            Point[] chan = chanAlgorithm.getResult();
+            HeapSort.sort(chan, Comparator.naturalOrder());
+            assert Arrays.equals(monotone, chan) : monotone.length + " " + chan.length;
+            // a second call starts over instead of merging the sub convex hulls of the first
+            Point[] again = chanAlgorithm.getResult();
+            HeapSort.sort(again, Comparator.naturalOrder());
+            assert Arrays.equals(chan, again);
+            Point[] marriage = new MarriageBeforeConquest(insertPts.clone()).getResult();
+            HeapSort.sort(marriage, Comparator.naturalOrder());
+            assert Arrays.equals(monotone, marriage) : monotone.length + " " + marriage.length;
+
+            // a sub convex hull made of copies of the last point found has no tangent of its own
+            Point[] same = new Point[9];
+            Arrays.fill(same, new Point(0, 0));
+            assert Arrays.equals(new Point[] {new Point(0, 0)}, new ChanAlgorithm(same).getResult());
+            Point[] repeated = {new Point(0, 0), new Point(0, 0), new Point(0, 0), new Point(0, 0), new Point(0, 0),
+                    new Point(5, 5), new Point(5, 5), new Point(5, 5), new Point(5, 5), new Point(9, 0)};
+            Point[] triangle = new ChanAlgorithm(repeated.clone()).getResult();
+            HeapSort.sort(triangle, Comparator.naturalOrder());
+            Point[] expected = new MonotoneChain(repeated.clone()).getResult();
+            HeapSort.sort(expected, Comparator.naturalOrder());
+            assert Arrays.equals(expected, triangle) : Arrays.toString(triangle);
+        }
+
+        public static void testAutoHull() {
+            Point[] insertPts = randomPoints(20000, 5000);
+            Point[] monotone = new MonotoneChain(insertPts.clone()).getResult();
+            HeapSort.sort(monotone, Comparator.naturalOrder());
+            AutoHull autoHull = new AutoHull(insertPts.clone());
+            Point[] auto = autoHull.getResult();
+            HeapSort.sort(auto, Comparator.naturalOrder());
+            assert Arrays.equals(monotone, auto) : autoHull.getChoice();
+
+            // already sorted points don't need to be sorted again
+            HeapSort.sort(insertPts, Point.BYXORDER);
+            assert AutoHull.choose(insertPts) == AutoHull.Choice.MONOTONE_CHAIN;
+
+            // points on a circle have a large convex hull
+            HashSet<Point> circle = new HashSet<>();
+            for (int i = 0; i < 20000; i++) {
+                double angle = Math.random() * 2 * Math.PI;
+                circle.add(new Point((int) (20000 + 19000 * Math.cos(angle)), (int) (20000 + 19000 * Math.sin(angle))));
+            }
+            Point[] circlePts = circle.toArray(new Point[0]);
+            AutoHull.Choice choice = AutoHull.choose(circlePts);
+            assert choice != AutoHull.Choice.JARVIS_MARCH && choice != AutoHull.Choice.CHAN : choice;
+            Point[] quick = new QuickHull(circlePts.clone()).getResult();
+            HeapSort.sort(quick, Comparator.naturalOrder());
+            Point[] radix = new MonotoneChain(circlePts.clone(), true).getResult();
+            HeapSort.sort(radix, Comparator.naturalOrder());
+            assert Arrays.equals(quick, radix);
+
+            // coordinates wide enough that Point.direction overflows, whichever algorithm is chosen
+            for (int trial = 0; trial < 4; trial++) {
+                Point[] wide = new Point[20000];
+                int left = (trial < 2) ? -100000 : -1; // -1 was the lowest x monotone chain used to skip
+                for (int i = 0; i < wide.length; i++)
+                    wide[i] = new Point(left + (int) (Math.random() * 200001), (int) (Math.random() * 200001) - 100000);
+                wide[0] = new Point(left, 0);
+                if (trial % 2 == 0) HeapSort.sort(wide, Point.BYXORDER);
+                Point[] expected = new QuickHull(wide.clone()).getResult();
+                HeapSort.sort(expected, Comparator.naturalOrder());
+                autoHull = new AutoHull(wide.clone());
+                auto = autoHull.getResult();
+                HeapSort.sort(auto, Comparator.naturalOrder());
+                assert Arrays.equals(expected, auto) : autoHull.getChoice();
+                Point[] chain = new MonotoneChain(wide.clone()).getResult();
+                HeapSort.sort(chain, Comparator.naturalOrder());
+                assert Arrays.equals(expected, chain);
+            }
+            // few points on the convex hull, but too wide for Jarvis March
+            Point[] triangle = new Point[5000];
+            for (int i = 0; i < triangle.length - 3; i++)
+                triangle[i] = new Point((int) (Math.random() * 1000), (int) (Math.random() * 1000));
+            triangle[triangle.length - 3] = new Point(-100000, -100000);
+            triangle[triangle.length - 2] = new Point(100000, -100000);
+            triangle[triangle.length - 1] = new Point(0, 100000);
+            assert AutoHull.choose(triangle) == AutoHull.Choice.QUICK_HULL : AutoHull.choose(triangle);
+        }
+
+        public static void testGridHull() {
+            // coordinates over most of the int range, far past where Point.direction overflows
+            for (int trial = 0; trial < 3; trial++) {
+                Point[] wide = new Point[(trial == 0) ? 100000 : 20000];
+                for (int i = 0; i < wide.length; i++)
+                    wide[i] = new Point((int) (Math.random() * 2e9) - 1000000000, (int) (Math.random() * 2e9) - 1000000000);
+                Point[] expected = new QuickHull(wide.clone()).getResult();
+                HeapSort.sort(expected, Comparator.naturalOrder());
+                Point[] grid = new GridHull(wide.clone()).getResult();
+                HeapSort.sort(grid, Comparator.naturalOrder());
+                assert Arrays.equals(expected, grid);
+            }
+
+            // a steep edge puts two points of the convex hull in one strip, the lower one is not kept
+            Point[] insertPts = randomPoints(100000, 30000);
+            Point[] steep = new Point[insertPts.length + 5];
+            for (int i = 0; i < insertPts.length; i++)
+                steep[i] = new Point(1000 + insertPts[i].getX() * 28 / 30, 1000 + insertPts[i].getY() * 28 / 30);
+            steep[insertPts.length] = new Point(0, 15000);
+            steep[insertPts.length + 1] = new Point(100, 17500);
+            steep[insertPts.length + 2] = new Point(150, 18700);
+            steep[insertPts.length + 3] = new Point(200, 19800);
+            steep[insertPts.length + 4] = new Point(120, 15000); // the lowest point of the strip, inside the hull
+            GridHull grid = new GridHull(steep.clone());
+            Point[] result = grid.getResult();
+            assert Arrays.equals(new MonotoneChain(steep.clone()).getResult(), result);
+            assert Arrays.asList(result).contains(new Point(100, 17500));
+            assert grid.getMissed() > 0;
+
+            // most of the points on a circle are missed, so every point goes to monotone chain
+            HashSet<Point> circle = new HashSet<>();
+            for (int i = 0; i < 20000; i++) {
+                double angle = Math.random() * 2 * Math.PI;
+                circle.add(new Point((int) (20000 + 19000 * Math.cos(angle)), (int) (20000 + 19000 * Math.sin(angle))));
+            }
+            Point[] circlePts = circle.toArray(new Point[0]);
+            assert Arrays.equals(new MonotoneChain(circlePts.clone()).getResult(), new GridHull(circlePts.clone()).getResult());
+
+            Point[] line = new Point[200];
+            for (int i = 0; i < line.length; i++) line[i] = new Point(2 * i, 3 * i + 1);
+            Point[] ends = new GridHull(line).getResult();
+            assert ends.length == 2 && ends[0].equals(new Point(0, 1)) && ends[1].equals(new Point(398, 598));
+        }
+
+        public static void testRandomizedIncremental() {
+            Point[] insertPts = randomPoints(50000, 30000);
+            Point[] expected = new MonotoneChain(insertPts.clone()).getResult();
+            assert Arrays.equals(expected, new RandomizedIncremental(insertPts.clone()).getResult());
+            assert Arrays.equals(expected, new RandomizedIncremental(insertPts.clone(), false).getResult());
+
+            // duplicated points and points on the edges of the first triangle
+            Point[] grid = new Point[3000];
+            for (int i = 0; i < grid.length; i++) grid[i] = new Point(i % 7 * 10, i / 7 % 5 * 10);
+            Point[] corners = new RandomizedIncremental(grid).getResult();
+            assert Arrays.equals(new Point[] {new Point(0, 0), new Point(60, 0), new Point(60, 40), new Point(0, 40)}, corners)
+                    : Arrays.toString(corners);
+
+            Point[] line = new Point[100];
+            for (int i = 0; i < line.length; i++) line[i] = new Point(50 - i, 2 * i);
+            Point[] ends = new RandomizedIncremental(line).getResult();
+            assert ends.length == 2 && ends[0].equals(new Point(-49, 198)) && ends[1].equals(new Point(50, 0));
+            assert new RandomizedIncremental(new Point[] {new Point(3, 3), new Point(3, 3)}).getResult().length == 1;
+        }
+
+        public static void testHullSolvers() {
+            Point[] insertPts = randomPoints(500, 500);
+            Point[] order = insertPts.clone();
+            Point[] expected = HullSolvers.MONOTONE_CHAIN.solve(insertPts);
+            HeapSort.sort(expected, Comparator.naturalOrder());
+            for (HullSolvers solver: HullSolvers.values()) {
+                Point[] result = solver.solve(insertPts);
+                HeapSort.sort(result, Comparator.naturalOrder());
+                assert Arrays.equals(expected, result) : solver;
+
+                int[] indices = solver.solveIndices(insertPts);
+                Point[] indexed = new Point[indices.length];
+                for (int i = 0; i < indices.length; i++)
+                    indexed[i] = insertPts[indices[i]];
+                HeapSort.sort(indexed, Comparator.naturalOrder());
+                assert Arrays.equals(expected, indexed) : solver;
+                assert Arrays.equals(order, insertPts) : "the given array should not be reordered";
+            }
+        }
+
+        public static void testCancellation() {
+            Point[] insertPts = randomPoints(2000, 2000);
+            Point[] expected = HullSolvers.MONOTONE_CHAIN.solve(insertPts);
+            CancellationToken cancelled = new CancellationToken();
+            cancelled.cancel();
+            for (HullSolvers solver: HullSolvers.values()) {
+                HullResult result = solver.solve(insertPts, CancellationToken.withTimeout(60_000));
+                assert result.isComplete() : solver;
+                assert Arrays.equals(expected, HullSolvers.MONOTONE_CHAIN.solve(result.getResult())) : solver;
+                assert solver.solve(insertPts, cancelled).getStatus() == HullResult.Status.CANCELLED : solver;
+            }
+
+            // jarvis march on a circle takes n passes over the points
+            HashSet<Point> circle = new HashSet<>();
+            for (int i = 0; i < 100000; i++) {
+                double angle = 2 * Math.PI * i / 100000;
+                circle.add(new Point((int) (20000 + 19000 * Math.cos(angle)), (int) (20000 + 19000 * Math.sin(angle))));
+            }
+            Point[] circlePts = circle.toArray(new Point[0]);
+            HullResult jarvis = HullSolvers.JARVIS_MARCH.solve(circlePts, CancellationToken.withTimeout(20));
+            assert jarvis.getStatus() == HullResult.Status.TIMED_OUT : jarvis.getStatus();
+            assert jarvis.getElapsedNanos() < 2_000_000_000L : jarvis.getElapsedNanos();
+
+            // the timeout is thrown on a fork-join thread and still comes out as a timeout
+            Point[] manyPts = randomPoints(1 << 21, 30000);
+            for (HullSolvers solver: new HullSolvers[] {HullSolvers.QUICK_HULL, HullSolvers.MARRIAGE_BEFORE_CONQUEST,
+                    HullSolvers.CHAN, HullSolvers.GRAHAM_SCAN}) {
+                HullResult result = solver.solve(manyPts, CancellationToken.withTimeout(1));
+                assert result.getStatus() == HullResult.Status.TIMED_OUT : solver + " " + result.getStatus();
+            }
+        }
+
+        public static void testOnlineHull() {
+            Point[] insertPts = randomPoints(30000, 20000);
+            OnlineHull online = new OnlineHull();
+            for (int i = 0; i < insertPts.length; i++) {
+                online.add(insertPts[i]);
+                if (i % 5000 == 4999 || i < 50 && i >= 2) {
+                    Point[] expected = new MonotoneChain(Arrays.copyOf(insertPts, i + 1)).getResult();
+                    HeapSort.sort(expected, Comparator.naturalOrder());
+                    Point[] result = online.getResult();
+                    HeapSort.sort(result, Comparator.naturalOrder());
+                    assert Arrays.equals(expected, result) : i;
+                }
+            }
+            assert online.getCount() == insertPts.length;
+            for (Point pt: insertPts)
+                assert online.contains(pt);
+            assert !online.contains(new Point(-1, -1));
+
+            // points on one line keep only the two ends
+            OnlineHull line = new OnlineHull();
+            assert line.add(new Point(0, 0)) && line.add(new Point(4, 4));
+            assert !line.add(new Point(2, 2));
+            assert Arrays.equals(line.getResult(), new Point[] {new Point(0, 0), new Point(4, 4)});
+        }
+
+        public static void testConvexLayers() {
+            // a square around a triangle around a point, with a point in the middle of an edge and a point given twice
+            Point[] onion = {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10), new Point(5, 0),
+                    new Point(3, 3), new Point(7, 3), new Point(5, 7), new Point(5, 4), new Point(3, 3)};
+            ConvexLayers peeled = new ConvexLayers(onion);
+            assert Arrays.equals(peeled.getLayers(), new int[] {0, 0, 0, 0, 1, 1, 1, 1, 2, 1});
+            assert Arrays.equals(peeled.getLayer(0), new Point[] {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10)});
+            assert peeled.getLayerCount() == 3;
+
+            // compared with running monotone chain on what is left again and again
+            for (int range: new int[] {30, 3000}) {
+                Point[] insertPts = randomPoints(3000, range);
+                int[] layers = new ConvexLayers(insertPts).getLayers();
+                ArrayList<Point> left = new ArrayList<>(Arrays.asList(insertPts));
+                HashMap<Point, Integer> expected = new HashMap<>();
+                for (int layer = 0; !left.isEmpty(); layer++) {
+                    Point[] hull = (left.size() <= 2) ? left.toArray(new Point[0]) : new MonotoneChain(left.toArray(new Point[0])).getResult();
+                    for (Point pt: hull) expected.put(pt, layer);
+                    left.removeAll(Arrays.asList(hull));
+                }
+                for (int i = 0; i < insertPts.length; i++)
+                    assert layers[i] == expected.get(insertPts[i]) : insertPts[i];
+            }
+        }
+
+        /**
+         * Generates distinct random points
+         * @param num the maximum number of points
+         * @param range the coordinates are between 0 and range
+         * @return the distinct points generated
+         */
+        private static Point[] randomPoints(int num, int range) {
+            HashSet<Point> pts = new HashSet<>();
+            for (int i = 0; i < num; i++)
+                pts.add(new Point((int) (Math.random() * range), (int) (Math.random() * range)));
+            Point[] result = new Point[pts.size()];
+            return pts.toArray(result);
+        }
         }
 
     private static class TestPoint {
@@ -227,6 +540,16 @@ public class Test {
                     new Point(9,6), new Point(10,0),new Point(10,2), new Point(10,6)};
             assert Arrays.equals(pts, answer);
         }
+        public static void testOrientation() {
+            assert Point.orientation(new Point(0, 0), new Point(10, 0), new Point(5, 5)) == 50; // left turn
+            assert Point.orientation(new Point(0, 0), new Point(10, 0), new Point(5, -5)) == -50; // right turn
+            assert Point.orientation(new Point(0, 0), new Point(10, 10), new Point(-3, -3)) == 0; // collinear
+            // wide enough that direction overflows
+            Point pt1 = new Point(-100000, -100000), pt2 = new Point(100000, -100000), pt3 = new Point(0, 100000);
+            assert Point.orientation(pt1, pt2, pt3) == 40000000000L;
+            assert Point.orientation(pt1, pt3, pt2) == -40000000000L;
+            assert Point.orientation(-100000, -100000, 100000, -100000, 0, 100000) == 40000000000L;
+        }
     }
 
     private static class TestSort {
@@ -259,6 +582,22 @@ public class Test {
             HeapSort.sort(pts, bySlope,7 );
             assert Arrays.equals(answer, pts);
         }
+        public static void testRadix() {
+            Point[] pts = {new Point(10, 2), new Point(-3, 7), new Point(10, -2), new Point(0, 0),
+                    new Point(-3, -70000), new Point(70000, 5), new Point(0, 1)};
+            Point[] answer = pts.clone();
+            HeapSort.sort(answer, Point.BYXORDER);
+            RadixSort.sortByX(pts);
+            assert Arrays.equals(answer, pts);
+
+            pts = new Point[5000];
+            for (int i = 0; i < pts.length; i++)
+                pts[i] = new Point((int) (Math.random() * 300), (int) (Math.random() * 300));
+            answer = pts.clone();
+            HeapSort.sort(answer, Point.BYXORDER);
+            RadixSort.sortByX(pts);
+            assert Arrays.equals(answer, pts);
+        }
 
     }
 
@@ -427,6 +766,910 @@ public class Test {
         }
     }
 
+    private static class TestTrace {
+        public static void testReplay() {
+            AnimationArea animationArea = new AnimationArea(new HashSet<>());
+            // keeps every line the algorithms draw, to compare with the lines replayed
+            List<List<String>> drawn = new ArrayList<>();
+            AnimationArea drawnArea = new AnimationArea(new HashSet<>()) {
+                @Override
+                public void drawLine(java.awt.Color color, Point pt1, Point pt2) {
+                    drawn.get(drawn.size() - 1).add(pt1.getX() + " " + pt1.getY() + " " + pt2.getX() + " " + pt2.getY());
+                    super.drawLine(color, pt1, pt2);
+                }
+            };
+            HashSet<Point> pts = new HashSet<>();
+            for (int i = 0; i < 60; i++)
+                pts.add(new Point((int) (Math.random() * 550) + 25, (int) (Math.random() * 550) + 25));
+            Point[] insertPts = pts.toArray(new Point[0]);
+            ConvexHullAlgorithm[] algorithms = {new JarvisMarch(insertPts.clone()), new GrahamScan(insertPts.clone()),
+                    new QuickHull(insertPts.clone()), new DivideNConquer(insertPts.clone()),
+                    new MonotoneChain(insertPts.clone()), new Incremental(insertPts.clone()),
+                    new ChanAlgorithm(insertPts.clone()), new MarriageBeforeConquest(insertPts.clone()),
+                    new AutoHull(insertPts.clone()), new GridHull(insertPts.clone()),
+                    new RandomizedIncremental(insertPts.clone())};
+            for (ConvexHullAlgorithm algorithm: algorithms) {
+                for (Point pt: insertPts) pt.setRed(false);
+                drawn.clear();
+                StepTrace trace = StepTrace.start(algorithm, insertPts, drawnArea);
+                while (!trace.isComplete()) {
+                    drawn.add(new ArrayList<>());
+                    assert trace.recordFrame();
+                }
+                assert !trace.recordFrame();
+                assert algorithm.isComplete();
+                assert trace.frameCount() > 1 : trace.frameCount();
+                assert trace.frameCount() == drawn.size();
+
+                // the colors after the last frame are the colors the algorithm left the points in
+                boolean[] red = new boolean[trace.pointCount()];
+                List<String> lines = new ArrayList<>();
+                StepTrace.Visitor visitor = new StepTrace.Visitor() {
+                    @Override
+                    public void point(int index, boolean isRed) { red[index] = isRed; }
+                    @Override
+                    public void line(int color, int x1, int y1, int x2, int y2) { lines.add(x1 + " " + y1 + " " + x2 + " " + y2); }
+                };
+                for (int i = 0; i < trace.frameCount(); i++) {
+                    lines.clear();
+                    trace.replay(i, visitor, true);
+                    assert lines.equals(drawn.get(i)) : algorithm.getClass().getSimpleName() + " frame " + i;
+                }
+                for (int i = 0; i < insertPts.length; i++)
+                    assert red[i] == insertPts[i].isRed() : algorithm.getClass().getSimpleName() + " " + insertPts[i];
+                assert lines.size() > 0 : "the last frame draws the convex hull";
+
+                // going back to an earlier frame gives the same lines
+                for (int i = trace.frameCount() - 1; i >= 0; i -= 7) {
+                    lines.clear();
+                    trace.replay(i, visitor, true);
+                    assert lines.equals(drawn.get(i)) : algorithm.getClass().getSimpleName() + " frame " + i;
+                }
+
+                for (int i = 0; i < trace.frameCount(); i++)
+                    animationArea.drawFrame(trace, i);
+            }
+        }
+
+        public static void testLargeTrace() {
+            AnimationArea animationArea = new AnimationArea(new HashSet<>());
+            Point[] insertPts = canvasPoints(100000);
+            long start = System.nanoTime();
+            StepTrace trace = StepTrace.record(new MonotoneChain(insertPts.clone()), insertPts, animationArea);
+            long elapsed = (System.nanoTime() - start) / 1000000;
+            assert elapsed < 20000 : elapsed + " ms";
+            assert trace.byteSize() < (4 << 20) : trace.byteSize(); // the stack is stored as it changes, not every frame
+
+            // every frame redraws the whole stack and every line still to be tested
+            insertPts = canvasPoints(5000);
+            trace = StepTrace.record(new GrahamScan(insertPts.clone()), insertPts, animationArea);
+            assert trace.byteSize() < (4 << 20) : trace.byteSize();
+
+            // the first frames are ready long before the whole run is recorded
+            insertPts = canvasPoints(100000);
+            start = System.nanoTime();
+            trace = StepTrace.start(new JarvisMarch(insertPts.clone()), insertPts, animationArea);
+            for (int i = 0; i < 10; i++) {
+                assert trace.recordFrame();
+                animationArea.drawFrame(trace, i);
+            }
+            elapsed = (System.nanoTime() - start) / 1000000;
+            assert !trace.isComplete();
+            assert elapsed < 5000 : elapsed + " ms";
+        }
+
+        /**
+         * @param n the number of points
+         * @return distinct points that fit in the canvas
+         */
+        private static Point[] canvasPoints(int n) {
+            HashSet<Point> pts = new HashSet<>();
+            while (pts.size() < n)
+                pts.add(new Point((int) (Math.random() * 550) + 25, (int) (Math.random() * 550) + 25));
+            return pts.toArray(new Point[0]);
+        }
+
+        public static void testLiveHull() {
+            HashSet<Point> pts = new HashSet<>();
+            AnimationArea animationArea = new AnimationArea(pts);
+            int[][] clicks = {{100, 100}, {500, 100}, {300, 300}, {300, 500}, {300, 50}};
+            for (int[] click: clicks)
+                animationArea.mouseClicked(new java.awt.event.MouseEvent(animationArea, java.awt.event.MouseEvent.MOUSE_CLICKED,
+                        0, 0, click[0], click[1], 1, false));
+            assert pts.size() == clicks.length;
+            assert animationArea.getLiveHull().size() == 4 : animationArea.getLiveHull().size(); // (300, 300) is inside
+            animationArea.reset(new HashSet<>());
+            assert animationArea.getLiveHull().size() == 0;
+        }
+    }
+
+    private static class TestBatch {
+        public static void testBatch() {
+            int sets = 3000;
+            Point[][] pointSets = new Point[sets][];
+            int[] offsets = new int[sets + 1];
+            for (int set = 0; set < sets; set++) {
+                pointSets[set] = TestConvex.randomPoints((int) (Math.random() * 500), 1000);
+                offsets[set + 1] = offsets[set] + pointSets[set].length;
+            }
+            // a set with only one point and a set with collinear points
+            pointSets[0] = new Point[] {new Point(5, 5)};
+            pointSets[1] = new Point[] {new Point(0, 0), new Point(2, 2), new Point(1, 1), new Point(3, 3)};
+            for (int set = 0; set < sets; set++)
+                offsets[set + 1] = offsets[set] + pointSets[set].length;
+            int[] coords = new int[offsets[sets] * 2];
+            for (int set = 0; set < sets; set++)
+                for (int i = 0; i < pointSets[set].length; i++) {
+                    coords[2 * (offsets[set] + i)] = pointSets[set][i].getX();
+                    coords[2 * (offsets[set] + i) + 1] = pointSets[set][i].getY();
+                }
+
+            BatchHull.Result result = BatchHull.compute(coords, offsets);
+            assert result.size() == sets;
+            assert Arrays.equals(result.getHull(0), new int[] {0});
+            assert Arrays.equals(result.getHull(1), new int[] {offsets[1], offsets[1] + 3}) : Arrays.toString(result.getHull(1));
+            for (int set = 2; set < sets; set++) {
+                Point[] expected = (pointSets[set].length < 3) ? pointSets[set].clone()
+                        : new MonotoneChain(pointSets[set].clone()).getResult();
+                HeapSort.sort(expected, Comparator.naturalOrder());
+                int[] hull = result.getHull(set);
+                Point[] actual = new Point[hull.length];
+                for (int i = 0; i < hull.length; i++)
+                    actual[i] = pointSets[set][hull[i] - offsets[set]];
+                HeapSort.sort(actual, Comparator.naturalOrder());
+                assert Arrays.equals(expected, actual) : set;
+            }
+        }
+    }
+
+    private static class TestStreaming {
+        public static void testStreaming() {
+            Point[] insertPts = TestConvex.randomPoints(50000, 10000);
+            Point[] expected = new MonotoneChain(insertPts.clone()).getResult();
+            HeapSort.sort(expected, Comparator.naturalOrder());
+
+            StreamingHull streaming = new StreamingHull(256);
+            streaming.addAll(Arrays.asList(insertPts).iterator());
+            Point[] result = streaming.getResult();
+            HeapSort.sort(result, Comparator.naturalOrder());
+            assert Arrays.equals(expected, result);
+            assert streaming.getCount() == insertPts.length;
+            assert streaming.getRejected() > insertPts.length / 2 : streaming.getRejected();
+
+            Point[] parallel = Arrays.stream(insertPts).parallel().collect(StreamingHull.collector());
+            HeapSort.sort(parallel, Comparator.naturalOrder());
+            assert Arrays.equals(expected, parallel);
+
+            // points on one line only keep the two ends
+            Point[] line = StreamingHull.of(Arrays.asList(new Point(1, 1), new Point(3, 3), new Point(2, 2)).iterator());
+            assert line.length == 2 && line[0].equals(new Point(1, 1)) && line[1].equals(new Point(3, 3));
+        }
+
+        public static void testWindows() {
+            Point[] insertPts = TestConvex.randomPoints(3000, 2000);
+            for (long[] sizes: new long[][] {{60, 60}, {60, 20}, {50, 30}}) {
+                ArrayList<WindowedHull.Window> windows = new ArrayList<>();
+                WindowedHull windowed = (sizes[0] == sizes[1]) ? WindowedHull.tumbling(sizes[0], windows::add)
+                        : WindowedHull.sliding(sizes[0], sizes[1], windows::add);
+                for (int i = 0; i < insertPts.length; i++)
+                    windowed.add(insertPts[i], i / 5);
+                windowed.flush();
+                assert windowed.getLate() == 0;
+                long lastStart = Long.MIN_VALUE;
+                for (WindowedHull.Window window: windows) {
+                    assert window.getStart() > lastStart && window.getStart() % sizes[1] == 0;
+                    lastStart = window.getStart();
+                    assertWindow(window, insertPts, i -> i / 5);
+                }
+                long lastTime = (insertPts.length - 1) / 5;
+                long firstStart = Math.floorDiv(-sizes[0], sizes[1]) * sizes[1] + sizes[1];
+                assert windows.size() == lastTime / sizes[1] - firstStart / sizes[1] + 1 : windows.size();
+            }
+
+            // a point out of order whose pane is in a closed window and in one still open
+            ArrayList<WindowedHull.Window> sliding = new ArrayList<>();
+            WindowedHull outOfOrder = WindowedHull.sliding(10, 5, sliding::add);
+            Point[] late = {new Point(0, 0), new Point(10, 0), new Point(5, 10), new Point(3, 3)};
+            long[] times = {0, 12, 7, 2};
+            for (int i = 0; i < late.length; i++)
+                outOfOrder.add(late[i], times[i]);
+            assert outOfOrder.getLate() == 1; // every window with t = 2 closed at 10
+            outOfOrder.flush();
+            // [0, 10) closed before t = 7 came, [5, 15) was still open and takes it, no window is emitted twice
+            long[] starts = {-5, 0, 5, 10};
+            Point[][] expected = {{late[0]}, {late[0]}, {late[2], late[1]}, {late[1]}};
+            assert sliding.size() == starts.length : sliding.size();
+            for (int i = 0; i < starts.length; i++) {
+                assert sliding.get(i).getStart() == starts[i] : sliding.get(i).getStart();
+                Point[] result = sliding.get(i).getResult();
+                HeapSort.sort(result, Comparator.naturalOrder());
+                HeapSort.sort(expected[i], Comparator.naturalOrder());
+                assert Arrays.equals(expected[i], result) : starts[i];
+            }
+
+            ArrayList<WindowedHull.Window> sessions = new ArrayList<>();
+            WindowedHull session = WindowedHull.session(100, sessions::add);
+            for (int i = 0; i < insertPts.length; i++)
+                session.add(insertPts[i], i * 10L + ((i / 50) * 1000));
+            session.add(new Point(0, 0), 0); // too late for the first session
+            session.flush();
+            assert session.getLate() == 1;
+            assert sessions.size() == (insertPts.length + 49) / 50 : sessions.size();
+            for (WindowedHull.Window window: sessions)
+                assertWindow(window, insertPts, i -> i * 10L + ((i / 50) * 1000));
+        }
+
+        public static void testSummary() {
+            Point[] insertPts = TestConvex.randomPoints(20000, 3000);
+            Point[] expected = new MonotoneChain(insertPts.clone()).getResult();
+            HeapSort.sort(expected, Comparator.naturalOrder());
+
+            // summarize shards of different sizes and merge them in a different order
+            ArrayList<HullSummary> shards = new ArrayList<>();
+            int start = 0;
+            while (start < insertPts.length) {
+                int end = Math.min(insertPts.length, start + 1 + (int) (Math.random() * 2000));
+                shards.add(HullSummary.of(Arrays.copyOfRange(insertPts, start, end)));
+                start = end;
+            }
+            shards.add(HullSummary.empty());
+            shards.add(HullSummary.of(new Point[] {insertPts[0]}));
+            Collections.shuffle(shards);
+            HullSummary merged = HullSummary.empty();
+            for (HullSummary shard: shards)
+                merged = HullSummary.fromBytes(shard.toBytes()).merge(merged);
+            assert merged.getCount() == insertPts.length + 1 : merged.getCount();
+            Point[] result = merged.getResult();
+            HeapSort.sort(result, Comparator.naturalOrder());
+            assert Arrays.equals(expected, result);
+
+            byte[] bytes = merged.toBytes();
+            assert bytes.length < merged.getResult().length * 8 : bytes.length;
+            assert Arrays.equals(merged.getResult(), HullSummary.fromBytes(bytes).getResult());
+
+            // points on one line
+            HullSummary line = HullSummary.of(new Point[] {new Point(0, 0), new Point(2, 2)})
+                    .merge(HullSummary.of(new Point[] {new Point(1, 1), new Point(-5, -5)}));
+            assert Arrays.equals(line.getResult(), new Point[] {new Point(-5, -5), new Point(2, 2)});
+        }
+
+        public static void testSharded() {
+            Point[] insertPts = TestConvex.randomPoints(20000, 30000);
+            Point[] expected = new MonotoneChain(insertPts.clone()).getResult();
+            HeapSort.sort(expected, Comparator.naturalOrder());
+            java.nio.file.Path file = null;
+            java.net.ServerSocket server = null;
+            try {
+                file = java.nio.file.Files.createTempFile("points", ".txt");
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < insertPts.length; i++)
+                    text.append(insertPts[i].getX()).append((i % 2 == 0) ? " " : ",").append(insertPts[i].getY()).append('\n');
+                java.nio.file.Files.writeString(file, text);
+
+                Point[] processes = new ShardedHull(file, 3).computeWithProcesses(3).getResult();
+                HeapSort.sort(processes, Comparator.naturalOrder());
+                assert Arrays.equals(expected, processes);
+
+                // one worker that is up and one that refuses every connection
+                server = new java.net.ServerSocket(0, 50, java.net.InetAddress.getLoopbackAddress());
+                java.net.ServerSocket running = server;
+                Thread thread = new Thread(() -> ShardWorker.serve(running));
+                thread.setDaemon(true);
+                thread.start();
+                java.net.InetSocketAddress down;
+                try (java.net.ServerSocket closed = new java.net.ServerSocket(0, 50, java.net.InetAddress.getLoopbackAddress())) {
+                    down = new java.net.InetSocketAddress(closed.getInetAddress(), closed.getLocalPort());
+                }
+                ShardedHull sharded = new ShardedHull(file, 7).setTimeout(5000);
+                HullSummary summary = sharded.computeWithWorkers(Arrays.asList(down,
+                        new java.net.InetSocketAddress(server.getInetAddress(), server.getLocalPort())));
+                assert summary.getCount() == insertPts.length : summary.getCount();
+                assert sharded.getRetries() > 0;
+                Point[] workers = summary.getResult();
+                HeapSort.sort(workers, Comparator.naturalOrder());
+                assert Arrays.equals(expected, workers);
+            }
+            catch (java.io.IOException e) {
+                throw new AssertionError(e);
+            }
+            finally {
+                try {
+                    if (server != null) server.close();
+                    if (file != null) java.nio.file.Files.deleteIfExists(file);
+                }
+                catch (java.io.IOException ignored) {
+                    // the temporary file is left behind
+                }
+            }
+        }
+
+        public static void testService() {
+            Point[] circlePts;
+            try (HullService service = new HullService(2)) {
+                // many requests waiting at once
+                ArrayList<Point[]> requests = new ArrayList<>();
+                ArrayList<CompletableFuture<HullResult>> futures = new ArrayList<>();
+                for (int i = 0; i < 2000; i++) {
+                    Point[] pts = TestConvex.randomPoints(20 + (int) (Math.random() * 200), 1000);
+                    requests.add(pts);
+                    futures.add(service.computeAsync(pts, HullOptions.defaults().withSolver(HullSolvers.QUICK_HULL)));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+                for (int i = 0; i < requests.size(); i++) {
+                    HullResult result = futures.get(i).join();
+                    assert result.isComplete();
+                    assert Arrays.equals(HullSolvers.MONOTONE_CHAIN.solve(requests.get(i)),
+                            HullSolvers.MONOTONE_CHAIN.solve(result.getResult()));
+                }
+
+                // jarvis march on a circle runs for a long time
+                HashSet<Point> circle = new HashSet<>();
+                for (int i = 0; i < 100000; i++) {
+                    double angle = 2 * Math.PI * i / 100000;
+                    circle.add(new Point((int) (20000 + 19000 * Math.cos(angle)), (int) (20000 + 19000 * Math.sin(angle))));
+                }
+                circlePts = circle.toArray(new Point[0]);
+                HullResult timedOut = service.computeAsync(circlePts,
+                        HullOptions.defaults().withSolver(HullSolvers.JARVIS_MARCH).withTimeout(20)).join();
+                assert timedOut.getStatus() == HullResult.Status.TIMED_OUT;
+
+            }
+            try (HullService single = new HullService(1)) {
+                CompletableFuture<HullResult> cancelled = single.computeAsync(circlePts,
+                        HullOptions.defaults().withSolver(HullSolvers.JARVIS_MARCH));
+                cancelled.cancel(true);
+                assert cancelled.isCancelled();
+                // the computation stops so the next request doesn't wait for it on the only thread
+                assert single.computeAsync(circlePts).orTimeout(30, java.util.concurrent.TimeUnit.SECONDS)
+                        .join().isComplete();
+            }
+        }
+
+        public static void testCache() {
+            Point[] insertPts = TestConvex.randomPoints(5000, 5000);
+            Point[] reversed = insertPts.clone();
+            Collections.reverse(Arrays.asList(reversed));
+            HullSolver chain = HullSolvers.MONOTONE_CHAIN;
+            assert HullCache.key(insertPts, chain).equals(HullCache.key(reversed, chain)) : "the order of the points doesn't matter";
+            Point[] moved = insertPts.clone();
+            moved[0] = new Point(moved[0].getX() + 1, moved[0].getY());
+            assert !HullCache.key(insertPts, chain).equals(HullCache.key(moved, chain));
+            assert !HullCache.key(insertPts, chain).equals(HullCache.key(insertPts, HullSolvers.GRAHAM_SCAN));
+
+            HullCache cache = new HullCache(300, HullCache.Policy.LRU);
+            Point[] first = cache.get(insertPts, HullSolvers.MONOTONE_CHAIN);
+            Point[] second = cache.get(reversed, HullSolvers.MONOTONE_CHAIN);
+            assert Arrays.equals(first, second);
+            assert cache.getStats().getHits() == 1 && cache.getStats().getMisses() == 1;
+
+            // another solver gets its own hull, in the order it gives
+            HullCache solvers = new HullCache(10000, HullCache.Policy.LRU);
+            Point[] square = {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10), new Point(5, 0)};
+            HullSolver reversing = pts -> {
+                Point[] convex = HullSolvers.MONOTONE_CHAIN.solve(pts);
+                Collections.reverse(Arrays.asList(convex));
+                return convex;
+            };
+            Point[] forward = solvers.get(square, chain);
+            assert Arrays.equals(solvers.get(square, reversing), reversing.solve(square));
+            assert Arrays.equals(solvers.get(square, chain), forward);
+            assert solvers.getStats().getHits() == 1 && solvers.getStats().getMisses() == 2;
+            // solvers without a name only find their own hulls, even two of the same class
+            HullSolver[] unnamed = new HullSolver[2];
+            for (int i = 0; i < unnamed.length; i++) {
+                int shift = i;
+                unnamed[i] = pts -> {
+                    Point[] convex = HullSolvers.MONOTONE_CHAIN.solve(pts);
+                    Collections.rotate(Arrays.asList(convex), shift);
+                    return convex;
+                };
+            }
+            assert unnamed[0].name() == null && chain.name().equals("MONOTONE_CHAIN");
+            assert !HullCache.key(square, unnamed[0]).equals(HullCache.key(square, unnamed[1]));
+            assert Arrays.equals(solvers.get(square, unnamed[0]), unnamed[0].solve(square));
+            assert Arrays.equals(solvers.get(square, unnamed[1]), unnamed[1].solve(square));
+            assert solvers.get(HullCache.key(square, unnamed[0])) != null;
+
+            // small sets fill the cache, the least recently used one is evicted
+            Point[][] sets = new Point[60][];
+            for (int i = 0; i < sets.length; i++) {
+                sets[i] = TestConvex.randomPoints(50, 100);
+                cache.get(sets[i], HullSolvers.MONOTONE_CHAIN);
+                cache.get(insertPts, HullSolvers.MONOTONE_CHAIN); // keeps the large set recently used
+            }
+            HullCache.Stats stats = cache.getStats();
+            assert stats.getVertices() <= 300 && stats.getEvictions() > 0 : stats;
+            assert cache.get(HullCache.key(insertPts, chain)) != null;
+            assert cache.get(HullCache.key(sets[0], chain)) == null;
+
+            // a frequently used set survives in a least frequently used cache
+            HullCache lfu = new HullCache(100, HullCache.Policy.LFU);
+            for (int i = 0; i < 5; i++) lfu.get(sets[0], HullSolvers.MONOTONE_CHAIN);
+            for (int i = 1; i < sets.length; i++) lfu.get(sets[i], HullSolvers.MONOTONE_CHAIN);
+            assert lfu.get(HullCache.key(sets[0], chain)) != null;
+            assert lfu.get(HullCache.key(sets[1], chain)) == null;
+
+            java.nio.file.Path file = null;
+            try {
+                file = java.nio.file.Files.createTempFile("hulls", ".cache");
+                cache.save(file);
+                HullCache loaded = new HullCache(1000, HullCache.Policy.LRU);
+                loaded.load(file);
+                assert loaded.getStats().getEntries() == cache.getStats().getEntries();
+                assert Arrays.equals(loaded.get(HullCache.key(insertPts, chain)), first);
+
+                // only the hulls of named solvers are saved
+                solvers.save(file);
+                HullCache loadedSolvers = new HullCache(1000, HullCache.Policy.LRU);
+                loadedSolvers.load(file);
+                assert solvers.getStats().getEntries() == 4;
+                assert loadedSolvers.getStats().getEntries() == 1;
+                assert Arrays.equals(loadedSolvers.get(HullCache.key(square, chain)), forward);
+            }
+            catch (java.io.IOException e) {
+                throw new AssertionError(e);
+            }
+            finally {
+                try {
+                    if (file != null) java.nio.file.Files.deleteIfExists(file);
+                }
+                catch (java.io.IOException ignored) {
+                    // the temporary file is left behind
+                }
+            }
+        }
+
+        public static void testApproximate() {
+            Point[] insertPts = TestConvex.randomPoints(200000, 30000);
+            Point[] exact = new MonotoneChain(insertPts.clone()).getResult();
+            double diameter = new RotatingCalipers(exact).getDiameter();
+            PointBuffer buffer = new PointBuffer(insertPts.length);
+            for (Point pt: insertPts) buffer.add(pt);
+
+            for (double epsilon: new double[] {1e-2, 1e-4}) {
+                ApproximateHull approximate = ApproximateHull.of(insertPts, epsilon, false);
+                Point[] result = approximate.getResult();
+                double bound = approximate.getErrorBound();
+                assert bound <= epsilon * diameter : bound;
+                assert approximate.getDirections() >= 2 * Math.PI / Math.sqrt(epsilon);
+                // the result is inside the exact hull and every point is within the bound of it
+                for (Point pt: result)
+                    assert TestQueries.locateLinear(exact, pt.getX(), pt.getY()) != HullIndex.Location.INSIDE;
+                for (Point pt: exact)
+                    if (TestQueries.locateLinear(result, pt.getX(), pt.getY()) == HullIndex.Location.OUTSIDE)
+                        assert TestQueries.vertexDistance(new Point[] {pt}, result) <= bound + 1e-6 : pt;
+                assert Arrays.equals(result, ApproximateHull.of(buffer, epsilon, true).getResult());
+            }
+
+            // points on one line need more passes, since the cap next to the line is as long as the line
+            Point[] line = new Point[1000];
+            for (int i = 0; i < line.length; i++) line[i] = new Point(3 * i, 7 * i + 5);
+            ApproximateHull onLine = ApproximateHull.of(line, 1e-3, false);
+            assert onLine.getResult().length == 2 && onLine.getPasses() > 1;
+            assert onLine.getErrorBound() <= 1e-3 * Math.hypot(3 * 999, 7 * 999);
+
+            Point[] same = {new Point(4, 4), new Point(4, 4)};
+            assert ApproximateHull.of(same, 0.1, true).getResult().length == 1;
+            assert ApproximateHull.of(new Point[0], 0.1, true).getResult().length == 0;
+        }
+
+        /**
+         * Checks the hull of the window against the hull of the points whose time is in the window
+         */
+        private static void assertWindow(WindowedHull.Window window, Point[] insertPts,
+                                         java.util.function.IntToLongFunction time) {
+            ArrayList<Point> inWindow = new ArrayList<>();
+            for (int i = 0; i < insertPts.length; i++)
+                if (window.getStart() <= time.applyAsLong(i) && time.applyAsLong(i) < window.getEnd())
+                    inWindow.add(insertPts[i]);
+            Point[] expected = StreamingHull.of(inWindow.iterator());
+            HeapSort.sort(expected, Comparator.naturalOrder());
+            Point[] result = window.getResult();
+            HeapSort.sort(result, Comparator.naturalOrder());
+            assert Arrays.equals(expected, result) : window.getStart();
+        }
+    }
+
+    private static class TestQueries {
+        public static void testHullIndex() {
+            // a square with points on its edges, inside it and outside it
+            Point[] square = {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10)};
+            HullIndex index = new HullIndex(square);
+            assert index.locate(5, 5) == HullIndex.Location.INSIDE;
+            assert index.locate(0, 0) == HullIndex.Location.BOUNDARY;
+            assert index.locate(5, 0) == HullIndex.Location.BOUNDARY;
+            assert index.locate(10, 7) == HullIndex.Location.BOUNDARY;
+            assert index.locate(0, 3) == HullIndex.Location.BOUNDARY;
+            assert index.locate(11, 5) == HullIndex.Location.OUTSIDE;
+            assert index.locate(-1, 0) == HullIndex.Location.OUTSIDE;
+            assert index.locate(0, 11) == HullIndex.Location.OUTSIDE;
+            // the clockwise order gives the same answers
+            Point[] clockwise = square.clone();
+            Collections.reverse(Arrays.asList(clockwise));
+            assert new HullIndex(clockwise).locate(5, 0) == HullIndex.Location.BOUNDARY;
+            assert new HullIndex(clockwise).locate(5, 5) == HullIndex.Location.INSIDE;
+
+            // compared with checking every edge
+            Point[] insertPts = TestConvex.randomPoints(2000, 1000);
+            Point[] convex = new MonotoneChain(insertPts).getResult();
+            index = new HullIndex(convex);
+            for (int i = 0; i < 20000; i++) {
+                int x = (int) (Math.random() * 1200) - 100;
+                int y = (int) (Math.random() * 1200) - 100;
+                assert index.locate(x, y) == locateLinear(convex, x, y) : x + " " + y;
+            }
+            for (Point pt: convex)
+                assert index.locate(pt) == HullIndex.Location.BOUNDARY;
+            assert new HullIndex(new Point[] {new Point(0, 0), new Point(4, 4)}).locate(2, 2) == HullIndex.Location.BOUNDARY;
+            assert !new HullIndex(new Point[0]).contains(new Point(0, 0));
+
+            // a collinear vertex on the first or the last edge
+            Point[] bottom = {new Point(0, 0), new Point(2, 0), new Point(4, 0), new Point(4, 4), new Point(0, 4)};
+            assert new HullIndex(bottom).locate(3, 0) == HullIndex.Location.BOUNDARY;
+            assert new HullIndex(bottom).size() == 4;
+            Point[] left = {new Point(0, 0), new Point(4, 0), new Point(4, 4), new Point(0, 4), new Point(0, 2)};
+            assert new HullIndex(left).locate(0, 3) == HullIndex.Location.BOUNDARY;
+            assert new HullIndex(left).locate(0, 1) == HullIndex.Location.BOUNDARY;
+            assert new HullIndex(left).locate(-1, 2) == HullIndex.Location.OUTSIDE;
+            Point[] flat = {new Point(0, 0), new Point(2, 2), new Point(4, 4)};
+            assert new HullIndex(flat).locate(3, 3) == HullIndex.Location.BOUNDARY;
+            assert new HullIndex(flat).locate(5, 5) == HullIndex.Location.OUTSIDE;
+        }
+
+        public static void testBulk() {
+            Point[] convex = new MonotoneChain(TestConvex.randomPoints(2000, 1000)).getResult();
+            HullIndex index = new HullIndex(convex);
+            PointBuffer queries = new PointBuffer();
+            for (int i = 0; i < 300000; i++)
+                queries.add((int) (Math.random() * 1200) - 100, (int) (Math.random() * 1200) - 100);
+            // points sorted row by row, most of them are in the same wedge as the one before
+            for (int y = -50; y < 1050; y += 5)
+                for (int x = -50; x < 1050; x += 3)
+                    queries.add(x, y);
+            byte[] locations = index.locateAll(queries);
+            BitSet inside = index.containsAll(queries);
+            for (int i = 0; i < queries.size(); i++) {
+                HullIndex.Location location = index.locate(queries.getX(i), queries.getY(i));
+                assert locations[i] == location.ordinal() : i;
+                assert inside.get(i) == (location != HullIndex.Location.OUTSIDE) : i;
+            }
+        }
+
+        public static void testCalipers() {
+            // a 4 by 2 rectangle turned on its side
+            Point[] box = {new Point(0, 0), new Point(4, 0), new Point(4, 2), new Point(2, 2), new Point(0, 2)};
+            RotatingCalipers calipers = new RotatingCalipers(box);
+            assert calipers.getDiameterSquared() == 20;
+            assert calipers.getWidth() == 2;
+            assert calipers.getMinAreaRectangle().getArea() == 8;
+            assert calipers.getMinPerimeterRectangle().getPerimeter() == 12;
+            assert new RotatingCalipers(new Point[] {new Point(1, 1), new Point(4, 5)}).getDiameter() == 5;
+            assert new RotatingCalipers(new Point[0]).getMinAreaRectangle().getArea() == 0;
+
+            // compared with checking every pair of vertices and the rectangle of every edge
+            for (int trial = 0; trial < 50; trial++) {
+                Point[] convex = new MonotoneChain(TestConvex.randomPoints(20 + trial * 20, 30000)).getResult();
+                if (trial % 2 == 1) Collections.reverse(Arrays.asList(convex));
+                calipers = new RotatingCalipers(convex);
+                long diameter = 0;
+                double width = Double.POSITIVE_INFINITY, area = Double.POSITIVE_INFINITY, perimeter = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < convex.length; i++) {
+                    Point pt1 = convex[i];
+                    Point pt2 = convex[(i + 1) % convex.length];
+                    double ex = pt2.getX() - pt1.getX(), ey = pt2.getY() - pt1.getY();
+                    double length = Math.sqrt(ex * ex + ey * ey);
+                    double height = 0, low = 0, high = 0;
+                    for (Point pt: convex) {
+                        long dx = pt.getX() - pt1.getX(), dy = pt.getY() - pt1.getY();
+                        diameter = Math.max(diameter, (long) (pt.getX() - pt1.getX()) * dx + (long) (pt.getY() - pt1.getY()) * dy);
+                        height = Math.max(height, Math.abs(ex * dy - ey * dx) / length);
+                        low = Math.min(low, (ex * dx + ey * dy) / length);
+                        high = Math.max(high, (ex * dx + ey * dy) / length);
+                    }
+                    width = Math.min(width, height);
+                    area = Math.min(area, (high - low) * height);
+                    perimeter = Math.min(perimeter, 2 * (high - low + height));
+                }
+                assert calipers.getDiameterSquared() == diameter;
+                assert Math.abs(calipers.getWidth() - width) < 1e-6;
+                assert Math.abs(calipers.getMinAreaRectangle().getArea() - area) < 1e-6 * area;
+                assert Math.abs(calipers.getMinPerimeterRectangle().getPerimeter() - perimeter) < 1e-6 * perimeter;
+                // every vertex is inside the rectangles
+                for (RotatingCalipers.Rectangle rectangle: new RotatingCalipers.Rectangle[]
+                        {calipers.getMinAreaRectangle(), calipers.getMinPerimeterRectangle()}) {
+                    double[] corners = rectangle.getCorners();
+                    for (Point pt: convex)
+                        for (int i = 0; i < 4; i++) {
+                            double ax = corners[2 * i], ay = corners[2 * i + 1];
+                            double bx = corners[(2 * i + 2) % 8], by = corners[(2 * i + 3) % 8];
+                            double side = (bx - ax) * (pt.getY() - ay) - (by - ay) * (pt.getX() - ax);
+                            assert side >= -1e-6 * Math.hypot(bx - ax, by - ay) : side;
+                        }
+                }
+            }
+        }
+
+        public static void testHullQueries() {
+            Point[] square = {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10)};
+            HullQueries queries = new HullQueries(square);
+            assert queries.getVertex(queries.extreme(1, 1)).equals(new Point(10, 10));
+            assert queries.getVertex(queries.extreme(1, 0)).equals(new Point(10, 0));
+            assert queries.getVertex(queries.leftTangent(new Point(5, -5))).equals(new Point(0, 0));
+            assert queries.getVertex(queries.rightTangent(new Point(5, -5))).equals(new Point(10, 0));
+            assert queries.leftTangent(new Point(5, 5)) == -1 && queries.rightTangent(new Point(0, 5)) == -1;
+            assert Arrays.equals(queries.intersect(new Point(0, 5), new Point(1, 5)), new double[] {0, 5, 10, 5});
+            assert Arrays.equals(queries.intersect(new Point(1, 0), new Point(0, 0)), new double[] {10, 0, 0, 0});
+            assert queries.intersect(new Point(0, 11), new Point(1, 12)).length == 0;
+
+            // compared with checking every vertex and clipping the line with every edge
+            for (int trial = 0; trial < 40; trial++) {
+                Point[] convex = new MonotoneChain(TestConvex.randomPoints(3 + trial * 10, 30000)).getResult();
+                queries = new HullQueries(convex);
+                HullIndex index = new HullIndex(convex);
+                for (int i = 0; i < 300; i++) {
+                    int dx = (int) (Math.random() * 201) - 100;
+                    int dy = (int) (Math.random() * 201) - 100;
+                    if (dx == 0 && dy == 0) continue;
+                    int best = queries.extreme(dx, dy);
+                    int before = (best + queries.size() - 1) % queries.size();
+                    for (Point pt: convex)
+                        assert dot(dx, dy, pt) <= dot(dx, dy, queries.getVertex(best));
+                    assert queries.size() == 1 || dot(dx, dy, queries.getVertex(before)) < dot(dx, dy, queries.getVertex(best));
+
+                    Point pt = new Point((int) (Math.random() * 40000) - 5000, (int) (Math.random() * 40000) - 5000);
+                    if (i % 10 == 0) pt = convex[(int) (Math.random() * convex.length)];
+                    int left = queries.leftTangent(pt);
+                    int right = queries.rightTangent(pt);
+                    if (index.locate(pt) != HullIndex.Location.OUTSIDE) {
+                        assert left == -1 && right == -1;
+                    }
+                    else {
+                        checkTangent(convex, pt, queries.getVertex(left), -1);
+                        checkTangent(convex, pt, queries.getVertex(right), 1);
+                    }
+
+                    Point pt2 = new Point((int) (Math.random() * 40000) - 5000, (int) (Math.random() * 40000) - 5000);
+                    if (!pt.equals(pt2))
+                        checkIntersect(convex, pt, pt2, queries.intersect(pt, pt2));
+                }
+            }
+        }
+
+        private static long dot(int dx, int dy, Point pt) {
+            return (long) dx * pt.getX() + (long) dy * pt.getY();
+        }
+
+        /**
+         * Checks that every vertex is on one side of the line to the tangent, and the tangent is the nearest vertex on the line
+         * @param side 1 if the hull should be on the left, -1 if it should be on the right
+         */
+        private static void checkTangent(Point[] convex, Point pt, Point tangent, int side) {
+            long tx = tangent.getX() - pt.getX(), ty = tangent.getY() - pt.getY();
+            for (Point vertex: convex) {
+                long vx = vertex.getX() - pt.getX(), vy = vertex.getY() - pt.getY();
+                long cross = tx * vy - ty * vx;
+                assert cross * side >= 0 : pt + " " + tangent;
+                if (cross == 0) assert tx * tx + ty * ty <= vx * vx + vy * vy;
+            }
+        }
+
+        /**
+         * Clips the line with the inner side of every edge of a counterclockwise convex hull
+         */
+        private static void checkIntersect(Point[] convex, Point pt1, Point pt2, double[] ends) {
+            double lx = pt2.getX() - pt1.getX(), ly = pt2.getY() - pt1.getY();
+            double low = Double.NEGATIVE_INFINITY, high = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < convex.length; i++) {
+                Point v1 = convex[i];
+                Point v2 = convex[(i + 1) % convex.length];
+                double ex = v2.getX() - v1.getX(), ey = v2.getY() - v1.getY();
+                // the side of pt1 + t * l is start + t * slope
+                double start = ex * (pt1.getY() - v1.getY()) - ey * (pt1.getX() - v1.getX());
+                double slope = ex * ly - ey * lx;
+                if (slope == 0) {
+                    if (start < 0) high = Double.NEGATIVE_INFINITY;
+                }
+                else if (slope > 0) low = Math.max(low, -start / slope);
+                else high = Math.min(high, -start / slope);
+            }
+            if (low > high + 1e-9) {
+                assert ends.length == 0;
+                return;
+            }
+            assert ends.length == 4;
+            double length = lx * lx + ly * ly;
+            double t1 = ((ends[0] - pt1.getX()) * lx + (ends[1] - pt1.getY()) * ly) / length;
+            double t2 = ((ends[2] - pt1.getX()) * lx + (ends[3] - pt1.getY()) * ly) / length;
+            assert Math.abs(t1 - low) < 1e-9 : t1 + " " + low;
+            assert Math.abs(t2 - high) < 1e-9 : t2 + " " + high;
+        }
+
+        public static void testIntersection() {
+            HullQueries square = new HullQueries(new Point[] {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10)});
+            HullQueries touching = new HullQueries(new Point[] {new Point(10, 5), new Point(20, 0), new Point(20, 10)});
+            HullQueries apart = new HullQueries(new Point[] {new Point(11, 5), new Point(20, 0), new Point(20, 10)});
+            assert HullIntersection.intersects(square, touching);
+            assert HullIntersection.separatingLine(square, touching).length == 0;
+            assert HullIntersection.intersection(square, touching).length == 0;
+            assert !HullIntersection.intersects(square, apart);
+            assert HullIntersection.intersects(square, new HullQueries(new Point[] {new Point(3, 3)}));
+            assert !HullIntersection.intersects(square, new HullQueries(new Point[] {new Point(3, 11), new Point(8, 11)}));
+            assert HullIntersection.intersects(new HullQueries(new Point[] {new Point(0, 0), new Point(4, 4)}),
+                    new HullQueries(new Point[] {new Point(4, 0), new Point(0, 4)}));
+            double[] overlap = HullIntersection.intersection(square,
+                    new HullQueries(new Point[] {new Point(5, 5), new Point(15, 5), new Point(15, 15), new Point(5, 15)}));
+            assert Math.abs(area(overlap) - 25) < 1e-9;
+
+            // compared with checking every edge of both hulls as a separating line, and clipping one hull with the other
+            for (int trial = 0; trial < 3000; trial++) {
+                int range = (trial % 3 == 0) ? 20 : 1000;
+                Point[] convex1 = shiftedHull(3 + trial % 40, range, 0, 0);
+                Point[] convex2 = shiftedHull(3 + trial % 25, range, (int) (Math.random() * range * 2) - range, (int) (Math.random() * range * 2) - range);
+                HullQueries hull1 = new HullQueries(convex1);
+                HullQueries hull2 = new HullQueries(convex2);
+                boolean apartBrute = separatedByEdge(convex1, convex2) || separatedByEdge(convex2, convex1);
+                assert HullIntersection.intersects(hull1, hull2) == !apartBrute : Arrays.toString(convex1) + Arrays.toString(convex2);
+                double[] line = HullIntersection.separatingLine(hull1, hull2);
+                assert (line.length == 3) == apartBrute;
+                if (apartBrute) {
+                    for (Point pt: convex1) assert line[0] * pt.getX() + line[1] * pt.getY() < line[2];
+                    for (Point pt: convex2) assert line[0] * pt.getX() + line[1] * pt.getY() > line[2];
+                }
+                double expected = area(clip(convex1, convex2));
+                double actual = area(HullIntersection.intersection(hull1, hull2));
+                assert Math.abs(expected - actual) < 1e-6 * Math.max(1, expected) : expected + " " + actual;
+            }
+        }
+
+        private static Point[] shiftedHull(int num, int range, int dx, int dy) {
+            Point[] convex = new MonotoneChain(TestConvex.randomPoints(num, range)).getResult();
+            for (int i = 0; i < convex.length; i++)
+                convex[i] = new Point(convex[i].getX() + dx, convex[i].getY() + dy);
+            return convex;
+        }
+
+        /**
+         * @return whether every point of the second hull is strictly outside one edge of the first counterclockwise hull
+         */
+        private static boolean separatedByEdge(Point[] convex1, Point[] convex2) {
+            for (int i = 0; i < convex1.length; i++) {
+                Point pt1 = convex1[i];
+                Point pt2 = convex1[(i + 1) % convex1.length];
+                boolean allOutside = true;
+                for (Point pt: convex2)
+                    if (((long) pt2.getX() - pt1.getX()) * (pt.getY() - pt1.getY()) - ((long) pt2.getY() - pt1.getY()) * (pt.getX() - pt1.getX()) >= 0)
+                        allOutside = false;
+                if (allOutside) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Cuts the first counterclockwise hull with the inner side of every edge of the second
+         */
+        private static double[] clip(Point[] convex1, Point[] convex2) {
+            double[] polygon = new double[2 * convex1.length];
+            for (int i = 0; i < convex1.length; i++) {
+                polygon[2 * i] = convex1[i].getX();
+                polygon[2 * i + 1] = convex1[i].getY();
+            }
+            for (int i = 0; i < convex2.length && polygon.length > 0; i++) {
+                Point pt1 = convex2[i];
+                Point pt2 = convex2[(i + 1) % convex2.length];
+                double ex = pt2.getX() - pt1.getX(), ey = pt2.getY() - pt1.getY();
+                ArrayList<Double> kept = new ArrayList<>();
+                int size = polygon.length / 2;
+                for (int k = 0; k < size; k++) {
+                    double x1 = polygon[2 * k], y1 = polygon[2 * k + 1];
+                    double x2 = polygon[(2 * k + 2) % polygon.length], y2 = polygon[(2 * k + 3) % polygon.length];
+                    double side1 = ex * (y1 - pt1.getY()) - ey * (x1 - pt1.getX());
+                    double side2 = ex * (y2 - pt1.getY()) - ey * (x2 - pt1.getX());
+                    if (side1 >= 0) { kept.add(x1); kept.add(y1); }
+                    if ((side1 >= 0) != (side2 >= 0)) {
+                        double t = side1 / (side1 - side2);
+                        kept.add(x1 + t * (x2 - x1));
+                        kept.add(y1 + t * (y2 - y1));
+                    }
+                }
+                polygon = new double[kept.size()];
+                for (int k = 0; k < polygon.length; k++) polygon[k] = kept.get(k);
+            }
+            return polygon;
+        }
+
+        private static double area(double[] polygon) {
+            double area = 0;
+            for (int i = 0; i < polygon.length; i += 2)
+                area += polygon[i] * polygon[(i + 3) % polygon.length] - polygon[(i + 2) % polygon.length] * polygon[i + 1];
+            return area / 2;
+        }
+
+        public static void testDistance() {
+            Point[] square = {new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 10)};
+            HullDistance gjk = new HullDistance();
+            assert gjk.distance(square, new Point[] {new Point(13, 14), new Point(20, 14), new Point(20, 20)}) == 5;
+            assert Arrays.equals(gjk.getClosestPoints(), new double[] {10, 10, 13, 14});
+            assert gjk.distance(square, new Point[] {new Point(5, 12), new Point(20, 12), new Point(12, 30)}) == 2;
+            assert gjk.distance(square, new Point[] {new Point(5, 5)}) == 0;
+            assert gjk.distance(square, new Point[] {new Point(10, 3), new Point(15, 3)}) == 0;
+
+            // collinear and repeated vertices, the support has to walk along an edge that is level with the direction
+            gjk = new HullDistance();
+            Point[] flat = {new Point(1, 0), new Point(2, 0), new Point(2, 2), new Point(0, 2), new Point(0, 0)};
+            assert gjk.distance(flat, new Point[] {new Point(1, 10)}) == 8;
+            Point[] triangle = {new Point(31, 25), new Point(30, 40), new Point(35, 32)};
+            Point[] slanted = {new Point(28, 28), new Point(30, 25), new Point(30, 25), new Point(31, 19),
+                    new Point(30, 22), new Point(29, 25)};
+            gjk = new HullDistance();
+            assert Math.abs(gjk.distance(triangle, slanted) - 6 / Math.sqrt(37)) < 1e-9; // (31, 25) to (30, 25)-(31, 19)
+
+            // compared with the distances from every vertex to every edge
+            for (int trial = 0; trial < 2000; trial++) {
+                int range = (trial % 2 == 0) ? 20 : 1000;
+                Point[] convex1 = shiftedHull(3 + trial % 30, range, 0, 0);
+                Point[] convex2 = shiftedHull(3 + trial % 20, range, (int) (Math.random() * range * 2), (int) (Math.random() * range * 2));
+                gjk = new HullDistance();
+                double distance = gjk.distance(convex1, convex2);
+                double expected = HullIntersection.intersects(new HullQueries(convex1), new HullQueries(convex2)) ? 0
+                        : Math.min(vertexDistance(convex1, convex2), vertexDistance(convex2, convex1));
+                assert Math.abs(distance - expected) < 1e-6 * Math.max(1, expected) : distance + " " + expected;
+                double[] closest = gjk.getClosestPoints();
+                assert Math.abs(Math.hypot(closest[0] - closest[2], closest[1] - closest[3]) - distance) < 1e-6 * Math.max(1, distance);
+            }
+
+            // a hull circling another, each query starts from the simplex of the one before
+            Point[] still = shiftedHull(300, 10000, 0, 0);
+            Point[] moving = shiftedHull(300, 10000, 0, 0);
+            gjk = new HullDistance();
+            HullDistance cold = new HullDistance();
+            int steps = 0;
+            for (int frame = 0; frame < 1000; frame++) {
+                int dx = 20000 + (int) (15000 * Math.cos(frame / 100.0));
+                int dy = 20000 + (int) (15000 * Math.sin(frame / 100.0));
+                Point[] moved = new Point[moving.length];
+                for (int i = 0; i < moving.length; i++)
+                    moved[i] = new Point(moving[i].getX() + dx, moving[i].getY() + dy);
+                double distance = gjk.distance(still, moved);
+                steps += gjk.getIterations();
+                cold.reset();
+                assert Math.abs(cold.distance(still, moved) - distance) < 1e-6 * Math.max(1, distance);
+            }
+            assert steps < 1500 : steps;
+        }
+
+        /**
+         * @return the smallest distance from a vertex of the first hull to an edge of the second
+         */
+        private static double vertexDistance(Point[] convex1, Point[] convex2) {
+            double best = Double.POSITIVE_INFINITY;
+            for (Point pt: convex1)
+                for (int i = 0; i < convex2.length; i++) {
+                    Point pt1 = convex2[i];
+                    Point pt2 = convex2[(i + 1) % convex2.length];
+                    double ex = pt2.getX() - pt1.getX(), ey = pt2.getY() - pt1.getY();
+                    double t = ((pt.getX() - pt1.getX()) * ex + (pt.getY() - pt1.getY()) * ey) / (ex * ex + ey * ey);
+                    t = Math.max(0, Math.min(1, t));
+                    best = Math.min(best, Math.hypot(pt1.getX() + t * ex - pt.getX(), pt1.getY() + t * ey - pt.getY()));
+                }
+            return best;
+        }
+
+        /**
+         * Checks the point against every edge of a counterclockwise convex hull
+         */
+        private static HullIndex.Location locateLinear(Point[] convex, int x, int y) {
+            boolean onEdge = false;
+            for (int i = 0; i < convex.length; i++) {
+                Point pt1 = convex[i];
+                Point pt2 = convex[(i + 1) % convex.length];
+                long side = ((long) pt2.getX() - pt1.getX()) * (y - pt1.getY()) - ((long) pt2.getY() - pt1.getY()) * (x - pt1.getX());
+                if (side < 0) return HullIndex.Location.OUTSIDE;
+                if (side == 0) onEdge = true;
+            }
+            return onEdge ? HullIndex.Location.BOUNDARY : HullIndex.Location.INSIDE;
+        }
+    }
+
     private static class TestMedian {
         public static void testMedian() {
             Median median = new Median();
@@ -0,0 +1,198 @@
+/*
+  Adaptive Algorithm
+       Time Complexity: depends on the algorithm chosen, O(n log h) or better for most inputs
+ */
+package algorithms;
+
+import setup.HeapSort;
+import setup.Point;
+import userinterface.AnimationArea;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class AutoHull extends ConvexHullAlgorithm {
+
+    /**
+     * Looks at the points before choosing which algorithm to run
+     * Finds the convex hull of a random sample to guess how many points the convex hull has (h)
+     * Checks whether the points are already sorted and how large the range of the coordinates is
+     *      Already sorted points go to Monotone Chain, which skips the sort
+     *      Points that are nearly all on the convex hull go to Monotone Chain with radix sort
+     *          when the coordinates are small enough, since every point has to be looked at anyway
+     *      A tiny h goes to Jarvis March, it only needs h passes over the points
+     *      A small h goes to Chan's Algorithm when there are enough cores to build the sub convex hulls on
+     *      Jarvis March and Chan's Algorithm turn with the int Point.direction, so they are only chosen
+     *          when the coordinates are close enough together that it can't overflow
+     *      Everything else goes to Quick Hull, which splits the points in place and works in parallel on large inputs
+     */
+
+    /**
+     * The algorithms that could be chosen
+     */
+    public enum Choice { JARVIS_MARCH, CHAN, MONOTONE_CHAIN, QUICK_HULL }
+
+    private static final int SAMPLE_SIZE = 1024; // also the fewest points worth sampling
+    private static final int JARVIS_LIMIT = 4; // the largest guess of h where Jarvis March is used
+    private static final int CHAN_CORES = 8; // the fewest cores where Chan's Algorithm is used
+    private static final int RADIX_BITS = 32; // the most bits of coordinates radix sort is used for
+    private static final int DIRECTION_RANGE = 1 << 15; // Point.direction and Point.distance stay in int below this range
+
+    private final Choice choice;
+    private final ConvexHullAlgorithm algorithm;
+
+    public AutoHull(Point[] points)
+    {
+        choice = choose(points);
+        switch (choice) {
+            case JARVIS_MARCH:
+                algorithm = new JarvisMarch(points);
+                break;
+            case CHAN:
+                algorithm = new ChanAlgorithm(points);
+                break;
+            case QUICK_HULL:
+                algorithm = new QuickHull(points);
+                break;
+            default:
+                algorithm = new MonotoneChain(points, true);
+        }
+    }
+
+    /**
+     * Chooses the algorithm that should be the fastest for the points
+     * Takes O(n) time and does not change the points
+     * @param points the points to find the convex hull of
+     * @return the algorithm to use
+     */
+    public static Choice choose(Point[] points) {
+        int size = points.length;
+        if (size < SAMPLE_SIZE) return Choice.QUICK_HULL;
+
+        boolean isSorted = true;
+        int minX = points[0].getX();
+        int maxX = minX;
+        int minY = points[0].getY();
+        int maxY = minY;
+        for (int i = 1; i < size; i++) {
+            Point pt = points[i];
+            if (isSorted && Point.BYXORDER.compare(points[i-1], pt) > 0)
+                isSorted = false;
+            minX = Math.min(minX, pt.getX());
+            maxX = Math.max(maxX, pt.getX());
+            minY = Math.min(minY, pt.getY());
+            maxY = Math.max(maxY, pt.getY());
+        }
+        if (isSorted) return Choice.MONOTONE_CHAIN;
+
+        long guess = guessHullSize(points);
+        if (guess == size) {
+            int rangeBits = 64 - Long.numberOfLeadingZeros((long) maxX - minX)
+                    + 64 - Long.numberOfLeadingZeros((long) maxY - minY);
+            return (rangeBits <= RADIX_BITS) ? Choice.MONOTONE_CHAIN : Choice.QUICK_HULL;
+        }
+        // a turn sums two products of coordinate differences, which has to fit in an int
+        if ((long) maxX - minX >= DIRECTION_RANGE || (long) maxY - minY >= DIRECTION_RANGE) return Choice.QUICK_HULL;
+        if (guess <= JARVIS_LIMIT) return Choice.JARVIS_MARCH;
+        if (guess * guess <= size && Runtime.getRuntime().availableProcessors() >= CHAN_CORES) return Choice.CHAN;
+        return Choice.QUICK_HULL;
+    }
+
+    /**
+     * Guess the number of points on the convex hull from the convex hull of a sample
+     * The sample takes one random point from each of SAMPLE_SIZE equal slices so no point is taken twice
+     * The convex hull of points spread over a round area grows with the cube root of the number of points,
+     *      a sample where most of the points are on the convex hull means most of all the points are too
+     * @param points the points to find the convex hull of
+     * @return the guess on how many points are on the convex hull
+     */
+    private static long guessHullSize(Point[] points) {
+        int size = points.length;
+        Point[] sample = new Point[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            int start = (int) ((long) i * size / SAMPLE_SIZE);
+            int end = (int) ((long) (i+1) * size / SAMPLE_SIZE);
+            sample[i] = points[start + ThreadLocalRandom.current().nextInt(end - start)];
+        }
+        int sampleHull = hullSize(sample);
+        if (sampleHull >= SAMPLE_SIZE / 2) return size;
+        return Math.round(sampleHull * Math.cbrt((double) size / SAMPLE_SIZE));
+    }
+
+    /**
+     * Counts the points on the convex hull using monotone chain
+     * Does not mark the points as red since the sample is not part of any animation
+     * @param sample the points to count the convex hull of, gets sorted
+     * @return the number of points on the convex hull
+     */
+    private static int hullSize(Point[] sample) {
+        HeapSort.sort(sample, Point.BYXORDER);
+        Point[] convex = new Point[2 * sample.length];
+        int convexSize = 0;
+        for (Point pt: sample) { // lower hull
+            while (convexSize > 1 && Point.orientation(convex[convexSize-2], convex[convexSize-1], pt) <= 0)
+                convexSize--;
+            convex[convexSize++] = pt;
+        }
+        int lowerSize = convexSize;
+        for (int i = sample.length - 2; i >= 0; i--) { // upper hull
+            while (convexSize > lowerSize && Point.orientation(convex[convexSize-2], convex[convexSize-1], sample[i]) <= 0)
+                convexSize--;
+            convex[convexSize++] = sample[i];
+        }
+        return convexSize - 1; // last point is the same as the first point
+    }
+
+    /**
+     * @return the algorithm that was chosen
+     */
+    public Choice getChoice() {
+        return choice;
+    }
+
+    /**
+     * Draws the points and lines to the canvas using the algorithm chosen
+     *
+     * @param animationArea the canvas
+     */
+    @Override
+    public void draw(AnimationArea animationArea) {
+        algorithm.draw(animationArea);
+    }
+
+    /**
+     * whether the convex hull is complete
+     *
+     * @return true if it is completed, otherwise false
+     */
+    @Override
+    public boolean isComplete() {
+        return algorithm.isComplete();
+    }
+
+    /**
+     * @return the points that forms the convex hull
+     */
+    @Override
+    public Point[] getResult() {
+        return algorithm.getResult();
+    }
+
+    /**
+     * Lets the algorithm chosen be cancelled or stopped at a deadline
+     * @param cancellation the token getResult checks
+     * @return this
+     */
+    @Override
+    public ConvexHullAlgorithm setCancellation(CancellationToken cancellation) {
+        algorithm.setCancellation(cancellation);
+        return super.setCancellation(cancellation);
+    }
+
+    /**
+     * @return the time interval the animation should run at
+     */
+    @Override
+    public int getTime() {
+        return algorithm.getTime();
+    }
+}
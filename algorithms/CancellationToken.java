@@ -0,0 +1,63 @@
+package algorithms;
+
+/**
+ * Lets a computation of the convex hull be stopped from another thread, or once a deadline passes
+ * The algorithms check it every few thousand steps and throw HullCancelledException when it is done
+ */
+public final class CancellationToken {
+    /**
+     * A token that is never cancelled and has no deadline
+     */
+    public static final CancellationToken NONE = new CancellationToken(false, 0);
+
+    private volatile boolean cancelled;
+    private final boolean hasDeadline;
+    private final long deadline; // compared to System.nanoTime
+
+    public CancellationToken() {
+        this(false, 0);
+    }
+
+    private CancellationToken(boolean hasDeadline, long deadline) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param timeoutMillis how long the computation can run for
+     * @return a token that times out after the time given, and can also be cancelled before that
+     */
+    public static CancellationToken withTimeout(long timeoutMillis) {
+        return new CancellationToken(true, System.nanoTime() + Math.max(0, timeoutMillis) * 1_000_000);
+    }
+
+    /**
+     * Stops every computation using this token at its next check
+     */
+    public void cancel() {
+        if (this == NONE) throw new UnsupportedOperationException("The NONE token can't be cancelled");
+        cancelled = true;
+    }
+
+    /**
+     * @return whether cancel was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return whether the deadline has passed
+     */
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @throws HullCancelledException if the token was cancelled or the deadline passed
+     */
+    public void check() {
+        if (cancelled) throw new HullCancelledException(false);
+        if (isExpired()) throw new HullCancelledException(true);
+    }
+}
@@ -9,6 +9,10 @@ import setup.Point;
 import setup.PointStack;
 import userinterface.AnimationArea;
 
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 public class ChanAlgorithm extends ConvexHullAlgorithm{
 
     /**
@@ -34,6 +38,8 @@ public class ChanAlgorithm extends ConvexHullAlgorithm{
     private boolean isJarvisDone;
     private boolean foundAll;
 
+    private static final int PARALLEL_GROUPS = 64; // fewer groups than this are not worth forking
+
     public ChanAlgorithm(Point[] points)
     {
         this.points = points;
@@ -135,7 +141,7 @@ public class ChanAlgorithm extends ConvexHullAlgorithm{
      */
     private void jarvisStep() {
         isFoundTangents = false;
-        Point nextPt = findNextPt(finalConvex, tangents);
+        Point nextPt = findNextPt(finalConvex.lastPt(), tangents);
         index++;
         if (nextPt.equals(lowestPt)) {
             foundAll = true;
@@ -175,53 +181,68 @@ public class ChanAlgorithm extends ConvexHullAlgorithm{
      */
     @Override
     public Point[] getResult() {
-        return directImp(4);
+        return directImp(4, null);
     }
 
     /**
      * the direct implementation of Chan's Algorithm
      * Also serves as the rough draft for the draw feature
+     * The sub convex hulls are built on the fork-join pool and kept as contiguous arrays,
+     *      when the guess is too small they are merged into m^2 sized groups instead of being recalculated
      * @param m the guess on how many outputs there are
+     * @param miniHulls the sub convex hulls of the last guess, null for the first guess
      * @return the points that forms the convex hull
      */
-    private Point[] directImp(int m) {
-        PointStack[] tempMiniConvexes = new PointStack[size/m];
-        if (tempMiniConvexes.length == 0 || tempMiniConvexes.length==1) // no point running chan's algorithm when only one sub convex
-            return modifiedGraham(points, 0, points.length).getConvex();
-        if(m==4){
-            int pointer = 0;
-            for (int i = 0; i < tempMiniConvexes.length; i++)
-            {
-                if (i== tempMiniConvexes.length-1)
-                    tempMiniConvexes[i] = modifiedGraham(points, pointer, size);
-                else
-                    tempMiniConvexes[i] = modifiedGraham(points, pointer, pointer+m);
-                pointer += m;
+    private Point[] directImp(int m, Point[][] miniHulls) {
+        int groups = size/m;
+        if (groups <= 1) // no point running chan's algorithm when only one sub convex
+            return grahamRange(points, 0, size, getCancellation());
+        Point[][] tempMiniHulls = new Point[groups][];
+        CancellationToken cancellation = getCancellation(); // the groups are worked on by other threads
+        if (miniHulls == null) {
+            for (Point pt: points) {
+                if (lowestPt == null || pt.compareTo(lowestPt) < 0)
+                    lowestPt = pt;
             }
+            forEachGroup(groups, i -> {
+                if ((i & 255) == 0) cancellation.check();
+                tempMiniHulls[i] = grahamRange(points, i*m, (i == groups-1) ? size : (i+1)*m, cancellation);
+            });
         }
         else {
-            int i = 0;
-            for (PointStack allMiniConvex : allMiniConvexes) {
-                tempMiniConvexes[i] = merge(tempMiniConvexes[i], allMiniConvex);
-                i = (i + 1) % tempMiniConvexes.length;
-            }
+            forEachGroup(groups, i -> tempMiniHulls[i] = mergeRange(miniHulls,
+                    (int) ((long) i * miniHulls.length / groups),
+                    (int) ((long) (i+1) * miniHulls.length / groups), cancellation));
         }
-        allMiniConvexes = tempMiniConvexes;
 
         finalConvex = new PointStack();
         finalConvex.push(lowestPt);
+        Point[] tempTangents = new Point[groups];
         for (int i = 0; i < m; i++) {
-            tangents = new Point[allMiniConvexes.length];
-            for (int tang = 0; tang < tangents.length; tang++) {
-                tangents[tang] = findRightTang(finalConvex.lastPt(), allMiniConvexes[tang]);
-            }
+            checkCancelled(groups); // every step looks for a tangent on every sub convex
+            Point last = finalConvex.lastPt();
+            forEachGroup(groups, tang -> tempTangents[tang] = findRightTang(last, tempMiniHulls[tang], tempMiniHulls[tang].length));
 
-            Point nextPt = findNextPt(finalConvex, tangents);
+            Point nextPt = findNextPt(last, tempTangents);
             if (nextPt.equals(lowestPt)) return finalConvex.getConvex();
             else
                 finalConvex.push(nextPt);
         }
-        return directImp(m*m);
+        // square the guess, capped at the number of points so it never overflows
+        return directImp((int) Math.min((long) m * m, size), tempMiniHulls);
+    }
+
+    /**
+     * Runs the task for every group
+     * The groups are spread over the common fork-join pool when there are enough of them to pay off
+     * @param groups the number of groups
+     * @param task the work to be done for the index of a group
+     */
+    private static void forEachGroup(int groups, IntConsumer task) {
+        IntStream range = IntStream.range(0, groups);
+        if (groups >= PARALLEL_GROUPS)
+            range = range.parallel();
+        range.forEach(task);
     }
 
     /**
@@ -266,42 +287,52 @@ public class ChanAlgorithm extends ConvexHullAlgorithm{
     }
 
     /**
-     * merges two convex hulls together
-     * @param stack1 the first convex hull
-     * @param stack2 the second convex hull
-     * @return the points of the merged convex hull
+     * Runs the graham scan algorithm on the specified range of points without touching the shared state
+     * Safe to call from several threads as long as the ranges do not overlap
+     * @param tempPoints the array that contains the input points
+     * @param startInd the starting index of the specified range
+     * @param endInd the index the specified range is up to
+     * @param cancellation checked while sorting
+     * @return the points of the convex hull in counterclockwise order, starting from the lowest point
      */
-    private PointStack merge(PointStack stack1, PointStack stack2){
-        if (stack1 == null) return stack2;
-
-        int size1 = stack1.size();
-        Point[] convex1 = stack1.getStack();
-        int size2 = stack2.size();
-        Point[] convex2 = stack2.getStack();
-        Point sectionLowest;
-
-        // the first point on the convex will always have the lowest point of its corresponding convex
-        if (convex1[0].compareTo(convex2[0]) < 0) {
-            sectionLowest = convex1[0];
-            HeapSort.sort(convex2, sectionLowest.BYSLOPE, size2);
-        }
-        else {
-            sectionLowest = convex2[0];
-            HeapSort.sort(convex1, sectionLowest.BYSLOPE, size1);
+    private static Point[] grahamRange(Point[] tempPoints, int startInd, int endInd, CancellationToken cancellation) {
+        Point tempLowestPt = tempPoints[startInd];
+        for (int i = startInd + 1; i < endInd; i++) {
+            if (tempPoints[i].compareTo(tempLowestPt) < 0)
+                tempLowestPt = tempPoints[i];
         }
+        HeapSort.sortRange(tempPoints, cancellable(tempLowestPt.BYSLOPE, cancellation), startInd, endInd);
 
-        Point[] combineConvex = new Point[size1 + size2];
-        int pointer1 = 0;
-        int pointer2 = 0;
-        for (int i=0; i< combineConvex.length; i++) {
-            if (pointer1 >= size1) combineConvex[i] = convex2[pointer2++];
-            else if (pointer2 >= size2) combineConvex[i] = convex1[pointer1++];
-            else if(sectionLowest.BYSLOPE.compare(convex1[pointer1], convex2[pointer2]) < 0)
-                combineConvex[i] = convex1[pointer1++];
-            else combineConvex[i] = convex2[pointer2++];
+        Point[] miniConvex = new Point[endInd - startInd];
+        int miniSize = 0;
+        for (int i = startInd; i < endInd; i++) {
+            while (miniSize > 1 && Point.direction(miniConvex[miniSize-2], miniConvex[miniSize-1], tempPoints[i]) <= 0)
+                miniSize--;
+            miniConvex[miniSize++] = tempPoints[i];
         }
+        return Arrays.copyOf(miniConvex, miniSize);
+    }
 
-        return modifiedGraham(combineConvex, 0, combineConvex.length);
+    /**
+     * merges the convex hulls in the specified range together
+     * the convex hull of the vertices is the convex hull of all the points the sub convex hulls came from
+     * @param hulls the sub convex hulls
+     * @param startInd the index of the first convex hull to merge
+     * @param endInd the index the merge is up to
+     * @param cancellation checked while sorting
+     * @return the points of the merged convex hull
+     */
+    private static Point[] mergeRange(Point[][] hulls, int startInd, int endInd, CancellationToken cancellation) {
+        int total = 0;
+        for (int i = startInd; i < endInd; i++)
+            total += hulls[i].length;
+        Point[] combineConvex = new Point[total];
+        int pointer = 0;
+        for (int i = startInd; i < endInd; i++) {
+            System.arraycopy(hulls[i], 0, combineConvex, pointer, hulls[i].length);
+            pointer += hulls[i].length;
+        }
+        return grahamRange(combineConvex, 0, total, cancellation);
     }
 
     /**
@@ -311,37 +342,89 @@ public class ChanAlgorithm extends ConvexHullAlgorithm{
      * @return the point from the convex hull that forms a right tangent from the point focused on
      */
     private static Point findRightTang(Point p, PointStack miniStack) {
-        Point[] miniConvex = miniStack.getStack(); // could change to get stack?
-        int miniSize = miniStack.size();
-        int r = miniStack.size();
+        return findRightTang(p, miniStack.getStack(), miniStack.size());
+    }
+
+    /**
+     * Finds the right tangent from the point to the convex hull stored in the array
+     * Uses binary search so it takes O(log m) time
+     * @param p the point that is focused on
+     * @param miniConvex the points of the convex hull in counterclockwise order
+     * @param miniSize the number of points in the convex hull
+     * @return the point from the convex hull that forms a right tangent from the point focused on
+     */
+    private static Point findRightTang(Point p, Point[] miniConvex, int miniSize) {
+        int tang = tangentIndex(p, miniConvex, miniSize);
+        // the tangent could run along an edge of the sub convex hull, the farther point of the edge is needed
+        int next = (tang+1)%miniSize;
+        while (next != tang && !miniConvex[next].equals(p) && direction(p, miniConvex[tang], miniConvex[next]) == 0
+                && Point.distance(p, miniConvex[next]) > Point.distance(p, miniConvex[tang])) {
+            tang = next;
+            next = (tang+1)%miniSize;
+        }
+        return miniConvex[tang];
+    }
+
+    /**
+     * The binary search of findRightTang
+     * Walks the chain of edges, an edge points "up" when its end point is more clockwise from p than its start point
+     *      the tangent is the point where the edges stop pointing up
+     * The point should not be inside the convex hull
+     * @param p the point that is focused on
+     * @param miniConvex the points of the convex hull in counterclockwise order
+     * @param miniSize the number of points in the convex hull
+     * @return the index of a point that forms a right tangent from the point focused on
+     */
+    private static int tangentIndex(Point p, Point[] miniConvex, int miniSize) {
+        if (miniSize < 4) return linearTangent(p, miniConvex, miniSize);
+        if (miniConvex[0].equals(p)) return 1;
+        // check if the first point is already the tangent
+        if (direction(p, miniConvex[0], miniConvex[1]) >= 0 && direction(p, miniConvex[0], miniConvex[miniSize-1]) >= 0)
+            return 0;
+
         int l = 0;
-        int lBefore = direction(p, miniConvex[0], miniConvex[r-1]);
-        int lAfter = direction(p, miniConvex[0], miniConvex[(l+1)%r]);
-        while (l < r) {
+        int r = miniSize;
+        while (r - l > 1) {
             int c = (l+r) /2;
-            // if it is the point, just return the point at the counterclockwise of it
-            if (miniConvex[c].equals(p))
-                return miniConvex[(c+1)%miniSize];
-            else if (miniConvex[l%miniSize].equals(p))
-                return miniConvex[(l+1)%miniSize];
-
-            int cBefore = direction(p, miniConvex[c], miniConvex[repeat(c-1, miniSize)]);
-            int cNext = direction(p, miniConvex[c], miniConvex[(c+1) % miniSize]);
-            int cSide = direction(p, miniConvex[l], miniConvex[c]);
-            if (cBefore != -1 && cNext != -1) {
-                return miniConvex[c];
-            }
-            else if (cSide > 0 && (lAfter < 0 || lBefore == lAfter)
-                    || cSide == -1 && cBefore == -1) {
-                r = c;
+            if (miniConvex[c].equals(p)) return (c+1)%miniSize;
+            boolean upC = direction(p, miniConvex[c], miniConvex[(c+1)%miniSize]) < 0;
+            if (!upC && direction(p, miniConvex[c], miniConvex[c-1]) >= 0)
+                return c;
+
+            boolean upL = direction(p, miniConvex[l], miniConvex[l+1]) < 0;
+            if (upL) {
+                if (!upC || direction(p, miniConvex[c], miniConvex[l]) < 0) r = c;
+                else l = c;
             }
             else {
-                l= c+1;
-                lBefore = -cNext;
-                lAfter = direction(p, miniConvex[l%miniSize], miniConvex[(l+1)%miniSize]);
+                if (!upC && direction(p, miniConvex[l], miniConvex[c]) < 0) r = c;
+                else l = c;
+            }
+        }
+        return linearTangent(p, miniConvex, miniSize); // only reached on degenerate hulls
+    }
+
+    /**
+     * Finds the right tangent by looking at every point of the convex hull
+     * Used for the convex hulls that are too small to binary search on
+     * @param p the point that is focused on
+     * @param miniConvex the points of the convex hull in counterclockwise order
+     * @param miniSize the number of points in the convex hull
+     * @return the index of the point that forms a right tangent from the point focused on,
+     *         0 if every point of the convex hull is the point focused on, findNextPt then passes over it
+     */
+    private static int linearTangent(Point p, Point[] miniConvex, int miniSize) {
+        int tang = -1;
+        for (int i = 0; i < miniSize; i++) {
+            if (miniConvex[i].equals(p)) {
+                if (miniSize == 1) return i;
+                continue;
             }
+            int dir = (tang == -1) ? -1 : Point.direction(p, miniConvex[tang], miniConvex[i]);
+            if (dir < 0 || dir == 0 && Point.distance(p, miniConvex[i]) > Point.distance(p, miniConvex[tang]))
+                tang = i;
         }
-        return miniConvex[l%miniSize];
+        return Math.max(tang, 0);
     }
 
     /**
@@ -376,12 +459,11 @@ public class ChanAlgorithm extends ConvexHullAlgorithm{
     /**
      * Find the next point of the tangent to connect to
      * Represents the jarvis step of the algorithm
-     * @param finalConvex the final convex that is forming
+     * @param first the point most recently added to the final convex
      * @param tangents the right tangents to the sub convex hull
      * @return the point to connect to
      */
-    private Point findNextPt(PointStack finalConvex, Point[] tangents) {
-        Point first = finalConvex.lastPt();
+    private static Point findNextPt(Point first, Point[] tangents) {
         Point second = tangents[0];
 
         for (Point pt: tangents)
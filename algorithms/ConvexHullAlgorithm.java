@@ -3,7 +3,19 @@ package algorithms;
 import setup.Point;
 import userinterface.AnimationArea;
 
+import java.util.Comparator;
+
+/**
+ * The animation side of an algorithm, runs one step every time it is drawn
+ * getResult runs the whole algorithm at once, HullSolvers runs it without setting up any animation
+ * getResult checks its CancellationToken every few thousand steps, and throws HullCancelledException once it is done
+ */
 public abstract class ConvexHullAlgorithm {
+    private static final int CHECK_INTERVAL = 4096; // the steps taken between two checks of the token
+
+    private CancellationToken cancellation = CancellationToken.NONE;
+    private int steps; // only counted on the thread that called getResult
+
     /**
      * Draws the points and lines to the canvas
      * @param animationArea the canvas
@@ -27,4 +39,71 @@ public abstract class ConvexHullAlgorithm {
      * @return the time interval the animation should run at
      */
     public abstract int getTime();
+
+    /**
+     * Lets getResult be cancelled or stopped at a deadline
+     * @param cancellation the token getResult checks
+     * @return this
+     */
+    public ConvexHullAlgorithm setCancellation(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    /**
+     * @return the token getResult checks, for the work done on other threads
+     */
+    protected CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    /**
+     * Counts one step, and checks the token every few thousand steps
+     */
+    protected final void checkCancelled() {
+        checkCancelled(1);
+    }
+
+    /**
+     * Counts the steps, and checks the token every few thousand steps
+     * @param count how many steps were taken
+     */
+    protected final void checkCancelled(int count) {
+        steps += count;
+        if (steps >= CHECK_INTERVAL) {
+            steps = 0;
+            cancellation.check();
+        }
+    }
+
+    /**
+     * Lets a sort be cancelled, every comparison is counted as a step
+     * @param comparator the way to sort
+     * @return the comparator, which also checks the token when there is one
+     */
+    protected Comparator<Point> cancellable(Comparator<Point> comparator) {
+        if (cancellation == CancellationToken.NONE) return comparator;
+        return (pt1, pt2) -> {
+            checkCancelled();
+            return comparator.compare(pt1, pt2);
+        };
+    }
+
+    /**
+     * Lets a sort that runs on another thread be cancelled, every comparison is counted as a step
+     * @param comparator the way to sort
+     * @param cancellation the token to check
+     * @return the comparator, which also checks the token when there is one
+     */
+    protected static Comparator<Point> cancellable(Comparator<Point> comparator, CancellationToken cancellation) {
+        if (cancellation == CancellationToken.NONE) return comparator;
+        int[] count = new int[1];
+        return (pt1, pt2) -> {
+            if (++count[0] == CHECK_INTERVAL) {
+                count[0] = 0;
+                cancellation.check();
+            }
+            return comparator.compare(pt1, pt2);
+        };
+    }
 }
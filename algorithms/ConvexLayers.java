@@ -0,0 +1,282 @@
+/*
+  Convex Layers (Onion Peeling)
+       Time Complexity: O(n log^2 n)
+ */
+package algorithms;
+
+import setup.Point;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ConvexLayers {
+
+    /**
+     * Peels the convex hull off the points again and again, the first hull is layer 0, the hull of what is left is layer 1, ...
+     * Instead of running a convex hull algorithm on what is left each time, the hull is kept in a structure points are removed from
+     * The points sorted by x are the leaves of a binary tree, each node keeps the bridge of its two children,
+     *      the edge of its upper hull that joins the upper hull of its left child and the upper hull of its right child
+     *      (Overmars and van Leeuwen), the upper hull of the root is read off by following the bridges down
+     * A bridge is found in O(log n) by walking down both children at once, each step rules out half of one child
+     * Removing the points of a layer recomputes the bridges of the nodes above them, O(log^2 n) for each point
+     * The lower hull is the upper hull of the points turned around by 180 degrees, kept in a second tree
+     * Collinear points are left out of a layer, same as the other algorithms, points at the same position share a layer
+     */
+
+    private final int[] layers;
+    private final ArrayList<Point[]> hulls = new ArrayList<>();
+
+    /**
+     * Peels all the layers
+     * @param points the points, which are not changed
+     */
+    public ConvexLayers(Point[] points) {
+        int total = points.length;
+        layers = new int[total];
+        if (total == 0) return;
+
+        // sort by x then y, points at the same position are kept once
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) order[i] = i;
+        Arrays.sort(order, (i, j) -> Point.BYXORDER.compare(points[i], points[j]));
+        int[] same = new int[total]; // the position in the sorted distinct points of each point
+        long[] xs = new long[total], ys = new long[total];
+        int[] first = new int[total]; // one point at each sorted position
+        int n = 0;
+        for (int k = 0; k < total; k++) {
+            Point pt = points[order[k]];
+            if (n == 0 || xs[n - 1] != pt.getX() || ys[n - 1] != pt.getY()) {
+                xs[n] = pt.getX();
+                ys[n] = pt.getY();
+                first[n] = order[k];
+                n++;
+            }
+            same[order[k]] = n - 1;
+        }
+
+        // the lower tree holds the points turned around, so its sorted order is the other way
+        long[] turnedXs = new long[n], turnedYs = new long[n];
+        for (int i = 0; i < n; i++) {
+            turnedXs[i] = -xs[n - 1 - i];
+            turnedYs[i] = -ys[n - 1 - i];
+        }
+        BridgeTree upper = new BridgeTree(xs, ys, n);
+        BridgeTree lower = new BridgeTree(turnedXs, turnedYs, n);
+
+        int[] sortedLayers = new int[n];
+        int[] upperChain = new int[n], lowerChain = new int[n], removed = new int[n];
+        int left = n;
+        while (left > 0) {
+            int layer = hulls.size();
+            int upperSize = upper.chain(upperChain);
+            int lowerSize = lower.chain(lowerChain);
+            for (int k = 0; k < lowerSize; k++) lowerChain[k] = n - 1 - lowerChain[k];
+
+            // counterclockwise from the lowest x: the lower chain left to right, then the upper chain right to left
+            Point[] hull = new Point[Math.max(1, upperSize + lowerSize - 2)];
+            int size = 0;
+            for (int k = lowerSize - 1; k >= 0; k--) hull[size++] = points[first[lowerChain[k]]];
+            for (int k = upperSize - 2; k >= 1; k--) hull[size++] = points[first[upperChain[k]]];
+            if (size < hull.length) hull = Arrays.copyOf(hull, size);
+            hulls.add(hull);
+
+            int count = 0;
+            for (int k = 0; k < lowerSize; k++) removed[count++] = lowerChain[k];
+            for (int k = 1; k < upperSize - 1; k++) removed[count++] = upperChain[k];
+            for (int k = 0; k < count; k++) sortedLayers[removed[k]] = layer;
+            upper.remove(removed, count, false);
+            lower.remove(removed, count, true);
+            left -= count;
+        }
+        for (int i = 0; i < total; i++) layers[i] = sortedLayers[same[i]];
+    }
+
+    /**
+     * @return the layer of every point, in the same order as the points given, 0 for the outermost
+     */
+    public int[] getLayers() {
+        return layers.clone();
+    }
+
+    /**
+     * @return the number of layers
+     */
+    public int getLayerCount() {
+        return hulls.size();
+    }
+
+    /**
+     * @param layer the layer, 0 for the outermost
+     * @return the convex hull of the layer in counterclockwise order from the lowest x
+     */
+    public Point[] getLayer(int layer) {
+        return hulls.get(layer).clone();
+    }
+
+    /**
+     * The upper hull of points sorted by x (then y), as bridges in a binary tree over the points
+     * Node 1 is the root, the children of node i are 2i and 2i + 1, the leaves start at base
+     * A node with one empty child has the hull of the other child and no bridge of its own
+     */
+    private static final class BridgeTree {
+        private final long[] xs, ys;
+        private final int n, base;
+        private final int[] count; // the number of points left under each node
+        private final int[] lo, hi; // the ends of the bridge of each node with two children that have points
+        private final boolean[] dirty;
+
+        BridgeTree(long[] xs, long[] ys, int n) {
+            this.xs = xs;
+            this.ys = ys;
+            this.n = n;
+            int size = 1;
+            while (size < n) size *= 2;
+            base = size;
+            count = new int[2 * base];
+            lo = new int[base];
+            hi = new int[base];
+            dirty = new boolean[base];
+            for (int i = 0; i < n; i++) count[base + i] = 1;
+            for (int node = base - 1; node >= 1; node--) {
+                count[node] = count[2 * node] + count[2 * node + 1];
+                if (count[2 * node] > 0 && count[2 * node + 1] > 0) bridge(node);
+            }
+        }
+
+        /**
+         * Removes points and fixes the bridges above them, the nodes are fixed from the bottom up
+         * @param points the sorted positions of the points
+         * @param size the number of points
+         * @param turned true if the positions are of the points the other way round
+         */
+        void remove(int[] points, int size, boolean turned) {
+            int[] nodes = new int[size * Integer.numberOfTrailingZeros(base) + 1];
+            int changed = 0;
+            for (int k = 0; k < size; k++) {
+                int leaf = base + (turned ? n - 1 - points[k] : points[k]);
+                count[leaf] = 0;
+                for (int node = leaf / 2; node >= 1; node /= 2) {
+                    count[node]--;
+                    if (!dirty[node]) {
+                        dirty[node] = true;
+                        nodes[changed++] = node;
+                    }
+                }
+            }
+            Arrays.sort(nodes, 0, changed);
+            for (int k = changed - 1; k >= 0; k--) {
+                int node = nodes[k];
+                dirty[node] = false;
+                if (count[2 * node] > 0 && count[2 * node + 1] > 0) bridge(node);
+            }
+        }
+
+        /**
+         * Writes the upper hull from left to right
+         * @param out where the sorted positions of the hull are written
+         * @return the number of points in the hull
+         */
+        int chain(int[] out) {
+            if (count[1] == 0) return 0;
+            return chain(1, 0, n - 1, out, 0);
+        }
+
+        /**
+         * Writes the points of the upper hull of the node with positions from..to
+         * @return where the next point goes
+         */
+        private int chain(int node, int from, int to, int[] out, int size) {
+            node = down(node);
+            if (node >= base) {
+                out[size++] = node - base;
+                return size;
+            }
+            if (from <= lo[node]) size = chain(2 * node, from, Math.min(to, lo[node]), out, size);
+            if (to >= hi[node]) size = chain(2 * node + 1, Math.max(from, hi[node]), to, out, size);
+            return size;
+        }
+
+        /**
+         * @return the node itself, or the node under it that has the same hull
+         */
+        private int down(int node) {
+            while (node < base) {
+                if (count[2 * node] == 0) node = 2 * node + 1;
+                else if (count[2 * node + 1] == 0) node = 2 * node;
+                else break;
+            }
+            return node;
+        }
+
+        /**
+         * Finds the bridge of a node by walking down both children
+         * left is the part of the left hull kept so far, right the part of the right hull, each step halves one of them
+         */
+        private void bridge(int node) {
+            int left = down(2 * node), right = down(2 * node + 1);
+            int split = 2 * node + 1; // the first leaf of the right child, the hulls are apart on either side of it
+            while (split < base) split *= 2;
+            split -= base;
+            while (left < base || right < base) {
+                int a = start(left), b = end(left), c = start(right), d = end(right);
+                if (left < base && cross(a, b, c) >= 0) left = down(2 * left); // c is over the edge ab, the bridge is left of b
+                else if (right < base && cross(c, d, b) >= 0) right = down(2 * right + 1); // b is over cd, the bridge is right of c
+                else if (left >= base) right = down(2 * right);
+                else if (right >= base) left = down(2 * left + 1);
+                else if (crossingLeft(a, b, c, d, split - 1, split)) left = down(2 * left + 1);
+                else right = down(2 * right);
+            }
+            lo[node] = left - base;
+            hi[node] = right - base;
+        }
+
+        /**
+         * @return the left end of the bridge of the node, or the point of a leaf
+         */
+        private int start(int node) {
+            return (node >= base) ? node - base : lo[node];
+        }
+
+        /**
+         * @return the right end of the bridge of the node, or the point of a leaf
+         */
+        private int end(int node) {
+            return (node >= base) ? node - base : hi[node];
+        }
+
+        /**
+         * @return positive if c is on the left of the line from a to b
+         */
+        private long cross(int a, int b, int c) {
+            return Point.orientation(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+        }
+
+        /**
+         * Tells whether the lines ab and cd cross before the gap between two neighbouring sorted points
+         * Points with the same x are sorted by y, as if x was tipped by a tiny amount of y, so a tie in x is settled by y
+         * The comparison is exact, doubles are used when they are clearly far enough apart
+         */
+        private boolean crossingLeft(int a, int b, int c, int d, int gapLeft, int gapRight) {
+            long den = (xs[b] - xs[a]) * (ys[d] - ys[c]) - (ys[b] - ys[a]) * (xs[d] - xs[c]);
+            long num = (xs[c] - xs[a]) * (ys[d] - ys[c]) - (ys[c] - ys[a]) * (xs[d] - xs[c]);
+            // the crossing is a + (num / den) (b - a), compared with the middle of the gap, both times 2 den
+            int sign = compare(xs[a], xs[b] - xs[a], xs[gapLeft] + xs[gapRight], den, num);
+            if (sign == 0) sign = compare(ys[a], ys[b] - ys[a], ys[gapLeft] + ys[gapRight], den, num);
+            return (den > 0) ? sign < 0 : sign > 0;
+        }
+
+        /**
+         * @return the sign of 2 (start den + num step) - twiceGap den
+         */
+        private static int compare(long start, long step, long twiceGap, long den, long num) {
+            double estimate = 2.0 * ((double) start * den + (double) num * step) - (double) twiceGap * den;
+            double scale = 2.0 * (Math.abs((double) start * den) + Math.abs((double) num * step)) + Math.abs((double) twiceGap * den);
+            if (Math.abs(estimate) > 1e-9 * scale) return (estimate > 0) ? 1 : -1;
+            BigInteger exact = BigInteger.valueOf(start).multiply(BigInteger.valueOf(den))
+                    .add(BigInteger.valueOf(num).multiply(BigInteger.valueOf(step))).shiftLeft(1)
+                    .subtract(BigInteger.valueOf(twiceGap).multiply(BigInteger.valueOf(den)));
+            return exact.signum();
+        }
+    }
+}
@@ -145,7 +145,7 @@ public class DivideNConquer extends ConvexHullAlgorithm {
      * @return the points that forms the convex hull
      */
     private Point[] directImp() {
-        HeapSort.sort(points, Point.BYXORDER);
+        HeapSort.sort(points, cancellable(Point.BYXORDER));
 
         split(0, size/2);
         split(size/2, size);
@@ -166,6 +166,7 @@ public class DivideNConquer extends ConvexHullAlgorithm {
      * @param endInd the ending index to access in the array
      */
     private void split (int startInd, int endInd) {
+        checkCancelled(endInd - startInd);
         if (endInd - startInd <= 2)
         {
             findConvex(startInd, endInd);
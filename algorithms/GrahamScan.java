@@ -29,6 +29,7 @@ public class GrahamScan extends ConvexHullAlgorithm{
 
     private int tested; // the number of points being looked at
     private Point lowestPt;
+    private boolean isStart;
 
     public GrahamScan(Point[] points)
     {
@@ -38,10 +39,19 @@ public class GrahamScan extends ConvexHullAlgorithm{
 
         tested = 0;
         convex = new PointStack();
+        isStart = false;
+    }
+
+    /**
+     * Kicks off the algorithm by finding the lowest point and sorting the other points around it
+     * Done on the first step instead of in the constructor so nothing is sorted until the algorithm runs
+     */
+    private void firstStep() {
+        isStart = true;
         for (Point pt: points)
             updateLowest(pt);
 
-        HeapSort.sort(points, lowestPt.BYSLOPE); // Use slope instead of angle because calculating angle is too expensive
+        HeapSort.sort(points, cancellable(lowestPt.BYSLOPE)); // Use slope instead of angle because calculating angle is too expensive
         convex.push(lowestPt);
         tested++;
     }
@@ -52,6 +62,7 @@ public class GrahamScan extends ConvexHullAlgorithm{
      */
     @Override
     public void draw(AnimationArea animationArea) {
+        if (!isStart) firstStep();
         for (Point point:points)
             animationArea.drawPoint(point);
         convex.draw(animationArea);
@@ -130,15 +141,16 @@ public class GrahamScan extends ConvexHullAlgorithm{
      * @return the points that forms the convex hull
      */
     private Point[] directImp() {
-        // The following commented steps are already done in the constructor to enable the draw method to work
         // Find the lowest point of the points given
         // Sort the points according to the angle it makes with the lowest point
         // Push the first point to the stack
+        if (!isStart) firstStep();
 
         convex.push(points[tested]); // push the second point to the stack
         tested++;
         int dir;
         while (tested < size) {
+            checkCancelled();
             Point[] recentlyAdded = convex.lastTwo();
             dir = Point.direction(recentlyAdded[1], recentlyAdded[0], points[tested]);
             while (dir <= 0) {
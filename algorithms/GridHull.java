@@ -0,0 +1,296 @@
+/*
+  Grid Hull
+       Time Complexity: O(n) expected for points spread evenly over an area, O(n log n) in the worst case
+ */
+package algorithms;
+
+import setup.HeapSort;
+import setup.Point;
+import userinterface.AnimationArea;
+
+import java.util.Arrays;
+
+public class GridHull extends ConvexHullAlgorithm {
+
+    /**
+     * Splits the x range into sqrt(n) strips of the same width in one pass over the points
+     * Only the lowest and the highest point of each strip are kept, about 2 sqrt(n) points
+     *      The sides of the convex hull that are nearly vertical are in the first and last strip,
+     *          so every point of those two strips is kept and sorted, about sqrt(n) points each
+     * The kept points are then in x order strip by strip, so Monotone Chain on them skips the sort
+     *
+     * A point of the convex hull is not always the lowest or the highest of its strip, so the result is checked:
+     *      Every point is compared to the lower and upper chain of the hull at its x,
+     *          the edge under each strip is found once so each point only walks past the few edges in its strip
+     *      If every point is inside the hull or on its boundary, the hull is the convex hull of all the points
+     *      Otherwise the points outside are added to the hull and Monotone Chain is run on them once more,
+     *          when there are more points outside than kept points every point goes to Monotone Chain instead
+     * For points spread evenly the convex hull is found in the strips and nothing has to be fixed
+     * Every turn, in the check and in Monotone Chain, is worked out in long with Point.orientation,
+     * so the coordinates can span the whole int range
+     */
+
+    private static final int SMALL = 64; // fewer points than this go straight to Monotone Chain
+
+    private final Point[] points;
+    private final int size;
+    private boolean isComplete;
+
+    private int strips;
+    private long minX, width; // width is the number of x values in the range, max x - min x + 1
+    private Point[] kept;
+    private int missed;
+
+    private ConvexHullAlgorithm chain; // the Monotone Chain being animated
+    private boolean isFixing;
+
+    public GridHull(Point[] points)
+    {
+        this.points = points;
+        size = points.length;
+        isComplete = false;
+        isFixing = false;
+    }
+
+    /**
+     * Finds the x range in one pass, then keeps the lowest and the highest point of every strip in another,
+     * with every point of the first and last strip
+     */
+    private void bucket() {
+        strips = Math.max(1, (int) Math.ceil(Math.sqrt(size)));
+        long maxX = Long.MIN_VALUE;
+        minX = Long.MAX_VALUE;
+        for (Point pt: points) {
+            minX = Math.min(minX, pt.getX());
+            maxX = Math.max(maxX, pt.getX());
+        }
+        width = maxX - minX + 1;
+
+        Point[] lowest = new Point[strips];
+        Point[] highest = new Point[strips];
+        Point[] first = new Point[16], last = new Point[16];
+        int firstSize = 0, lastSize = 0;
+        for (Point pt: points) {
+            checkCancelled();
+            int strip = strip(pt.getX());
+            if (lowest[strip] == null || pt.getY() < lowest[strip].getY()) lowest[strip] = pt;
+            if (highest[strip] == null || pt.getY() > highest[strip].getY()) highest[strip] = pt;
+            if (strip == 0) {
+                if (firstSize == first.length) first = Arrays.copyOf(first, 2 * firstSize);
+                first[firstSize++] = pt;
+            }
+            else if (strip == strips - 1) {
+                if (lastSize == last.length) last = Arrays.copyOf(last, 2 * lastSize);
+                last[lastSize++] = pt;
+            }
+        }
+        HeapSort.sort(first, cancellable(Point.BYXORDER), firstSize);
+        HeapSort.sort(last, cancellable(Point.BYXORDER), lastSize);
+
+        kept = new Point[firstSize + 2 * strips + lastSize];
+        System.arraycopy(first, 0, kept, 0, firstSize);
+        int count = firstSize;
+        for (int strip = 1; strip < strips - 1; strip++) {
+            if (lowest[strip] == null) continue;
+            Point lower = lowest[strip], upper = highest[strip];
+            if (Point.BYXORDER.compare(lower, upper) > 0) {
+                lower = highest[strip];
+                upper = lowest[strip];
+            }
+            kept[count++] = lower;
+            if (upper != lower) kept[count++] = upper;
+        }
+        System.arraycopy(last, 0, kept, count, lastSize);
+        kept = Arrays.copyOf(kept, count + lastSize);
+    }
+
+    /**
+     * @return the strip the x falls in
+     */
+    private int strip(long x) {
+        return (int) ((x - minX) * strips / width);
+    }
+
+    /**
+     * @return the smallest x that falls in the strip
+     */
+    private long stripStart(int strip) {
+        return minX + ((long) strip * width + strips - 1) / strips;
+    }
+
+    /**
+     * Draws the points and lines to the canvas
+     *
+     * @param animationArea the canvas
+     */
+    @Override
+    public void draw(AnimationArea animationArea) {
+        if (chain == null) {
+            bucket();
+            chain = new MonotoneChain(kept);
+        }
+        else if (chain.isComplete() && !isFixing) {
+            // the animated chain already has its result drawn, the check works on a copy
+            Point[] next = fix(monotoneChain(kept.clone()));
+            if (next == null) isComplete = true;
+            else {
+                isFixing = true;
+                chain = new MonotoneChain(next);
+            }
+        }
+        else if (chain.isComplete()) isComplete = true;
+
+        for (Point pt: points)
+            animationArea.drawPoint(pt);
+        for (int strip = 1; strip < strips; strip++) {
+            int x = (int) stripStart(strip);
+            animationArea.drawLine(animationArea.LIGHT_GRAY, new Point(x, 0), new Point(x, animationArea.getCanvasSize()));
+        }
+        chain.draw(animationArea);
+    }
+
+    /**
+     * whether the convex hull is complete
+     *
+     * @return true if it is completed, otherwise false
+     */
+    @Override
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * @return the points that forms the convex hull
+     */
+    @Override
+    public Point[] getResult() {
+        return directImp();
+    }
+
+    /**
+     * The direct implementation of the Grid Hull
+     * @return the points that forms the convex hull
+     */
+    private Point[] directImp() {
+        if (size < SMALL) return monotoneChain(points);
+        bucket();
+        Point[] convex = monotoneChain(kept);
+        Point[] next = fix(convex);
+        return (next == null) ? convex : monotoneChain(next);
+    }
+
+    private Point[] monotoneChain(Point[] pts) {
+        return new MonotoneChain(pts).setCancellation(getCancellation()).getResult();
+    }
+
+    /**
+     * Checks that every point is inside the convex hull of the kept points
+     * @param convex the convex hull of the kept points
+     * @return null if the convex hull is right, otherwise the points to run Monotone Chain on again
+     */
+    private Point[] fix(Point[] convex) {
+        if (convex.length == 0) return points; // monotone chain gives nothing for a single point
+        Chains chains = (convex.length < 3) ? null : new Chains(convex);
+        Point[] outside = new Point[kept.length];
+        missed = 0;
+        for (Point pt: points) {
+            checkCancelled();
+            if (chains == null ? onSegment(convex, pt) : !chains.isOutside(pt)) continue;
+            if (missed == outside.length) return points; // too many points were missed
+            outside[missed++] = pt;
+        }
+        if (missed == 0) return null;
+        Point[] next = new Point[convex.length + missed];
+        System.arraycopy(convex, 0, next, 0, convex.length);
+        System.arraycopy(outside, 0, next, convex.length, missed);
+        return next;
+    }
+
+    /**
+     * The lower and upper chains of a convex hull, both from left to right without vertical edges
+     */
+    private class Chains {
+        private final Point[] lower, upper;
+        private final int lowerSize;
+        private final int[] lowerStart, upperStart; // the first edge that reaches each strip
+
+        /**
+         * @param convex the convex hull, counterclockwise starting from the lowest x (lowest y if tie)
+         */
+        Chains(Point[] convex) {
+            int right = 0;
+            for (int i = 1; i < convex.length; i++)
+                if (Point.BYXORDER.compare(convex[i], convex[right]) > 0) right = i;
+
+            // the lower chain keeps the lower end of a vertical edge, the upper chain the upper end
+            lower = new Point[right + 1];
+            int count = 0;
+            for (int i = 0; i <= right; i++)
+                if (count == 0 || convex[i].getX() != lower[count - 1].getX()) lower[count++] = convex[i];
+            lowerSize = count;
+            upper = new Point[convex.length - right + 1];
+            count = 0;
+            for (int i = convex.length; i >= right; i--) {
+                Point pt = convex[i % convex.length];
+                if (count > 0 && pt.getX() == upper[count - 1].getX()) count--;
+                upper[count++] = pt;
+            }
+            lowerStart = edgeStarts(lower, lowerSize);
+            upperStart = edgeStarts(upper, count);
+        }
+
+        private int[] edgeStarts(Point[] chain, int chainSize) {
+            int[] starts = new int[strips];
+            int edge = 0;
+            for (int strip = 0; strip < strips; strip++) {
+                long start = stripStart(strip);
+                while (edge + 2 < chainSize && chain[edge + 1].getX() < start) edge++;
+                starts[strip] = edge;
+            }
+            return starts;
+        }
+
+        /**
+         * Walks from the first edge of the strip to the edge under the point, in each chain
+         * @return whether the point is outside the convex hull
+         */
+        boolean isOutside(Point pt) {
+            int x = pt.getX();
+            if (x < lower[0].getX() || x > lower[lowerSize - 1].getX()) return true;
+            int strip = strip(x);
+            int low = lowerStart[strip];
+            while (lower[low + 1].getX() < x) low++;
+            int up = upperStart[strip];
+            while (upper[up + 1].getX() < x) up++;
+            return Point.orientation(lower[low], lower[low + 1], pt) < 0
+                    || Point.orientation(upper[up], upper[up + 1], pt) > 0;
+        }
+    }
+
+    /**
+     * @return whether the point is on the convex hull of one or two points
+     */
+    private static boolean onSegment(Point[] convex, Point pt) {
+        if (convex.length == 1) return convex[0].equals(pt);
+        Point a = convex[0], b = convex[1];
+        return Point.orientation(a, b, pt) == 0
+                && Math.min(a.getX(), b.getX()) <= pt.getX() && pt.getX() <= Math.max(a.getX(), b.getX())
+                && Math.min(a.getY(), b.getY()) <= pt.getY() && pt.getY() <= Math.max(a.getY(), b.getY());
+    }
+
+    /**
+     * @return the number of points found outside the convex hull of the kept points,
+     *         the check stops once there are more of them than kept points
+     */
+    public int getMissed() {
+        return missed;
+    }
+
+    /**
+     * @return the time interval the animation should run at
+     */
+    @Override
+    public int getTime() {
+        return 650;
+    }
+}
@@ -0,0 +1,34 @@
+package algorithms;
+
+/**
+ * Thrown out of getResult when its CancellationToken is cancelled or its deadline passes
+ */
+public class HullCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean isTimeout;
+
+    /**
+     * @param isTimeout true if the deadline passed, false if the token was cancelled
+     */
+    public HullCancelledException(boolean isTimeout) {
+        super(isTimeout ? "The convex hull timed out" : "The convex hull was cancelled");
+        this.isTimeout = isTimeout;
+    }
+
+    /**
+     * Used by the fork-join pool when it rethrows an exception from another thread
+     * @param cause the exception thrown by the other thread
+     */
+    public HullCancelledException(Throwable cause) {
+        super(cause.getMessage(), cause);
+        isTimeout = cause instanceof HullCancelledException && ((HullCancelledException) cause).isTimeout();
+    }
+
+    /**
+     * @return true if the deadline passed, false if the token was cancelled
+     */
+    public boolean isTimeout() {
+        return isTimeout;
+    }
+}
@@ -0,0 +1,72 @@
+package algorithms;
+
+import setup.Point;
+
+import java.util.function.Supplier;
+
+/**
+ * The outcome of a computation that could be cancelled or time out
+ */
+public final class HullResult {
+    /**
+     * How the computation ended
+     */
+    public enum Status { COMPLETE, CANCELLED, TIMED_OUT }
+
+    private final Status status;
+    private final Point[] convex;
+    private final long elapsedNanos;
+
+    private HullResult(Status status, Point[] convex, long elapsedNanos) {
+        this.status = status;
+        this.convex = convex;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Runs the computation, turning a cancellation into a result instead of an exception
+     * @param cancellation checked before the computation starts
+     * @param computation finds the convex hull, may throw HullCancelledException
+     * @return the result of the computation
+     */
+    public static HullResult run(CancellationToken cancellation, Supplier<Point[]> computation) {
+        long start = System.nanoTime();
+        try {
+            cancellation.check();
+            return new HullResult(Status.COMPLETE, computation.get(), System.nanoTime() - start);
+        }
+        catch (HullCancelledException e) {
+            return new HullResult(e.isTimeout() ? Status.TIMED_OUT : Status.CANCELLED, null, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return how the computation ended
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return whether the convex hull was found
+     */
+    public boolean isComplete() {
+        return status == Status.COMPLETE;
+    }
+
+    /**
+     * @return the points that forms the convex hull
+     * @throws IllegalStateException if the computation was cancelled or timed out
+     */
+    public Point[] getResult() {
+        if (!isComplete()) throw new IllegalStateException("No convex hull, the computation was " + status);
+        return convex;
+    }
+
+    /**
+     * @return how long the computation ran for, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
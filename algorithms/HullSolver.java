@@ -0,0 +1,56 @@
+package algorithms;
+
+import setup.Point;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Computes the convex hull without any animation
+ * Nothing here depends on the canvas, so it can run on a server that never loads the user interface
+ */
+public interface HullSolver {
+    /**
+     * Finds the convex hull of the points
+     * The array given is not reordered
+     * @param points the points to find the convex hull of
+     * @return the points that forms the convex hull
+     */
+    Point[] solve(Point[] points);
+
+    /**
+     * A name that stays the same from one run to the next and is only used by solvers that give the same hull,
+     * so a cached hull can be found again after the cache is saved and loaded
+     * The solvers of HullSolvers are named by their constant
+     * @return the name of the solver, null if it has none
+     */
+    default String name() {
+        return null;
+    }
+
+    /**
+     * Finds the convex hull of the points, stopping early if the token is cancelled or its deadline passes
+     * Solvers that can't be interrupted only check the token before they start
+     * @param points the points to find the convex hull of
+     * @param cancellation the token to check
+     * @return the convex hull, or the reason there is none
+     */
+    default HullResult solve(Point[] points, CancellationToken cancellation) {
+        return HullResult.run(cancellation, () -> solve(points));
+    }
+
+    /**
+     * Finds the convex hull of the points
+     * @param points the points to find the convex hull of
+     * @return the index in the given array of each point that forms the convex hull, in the order solve returns them
+     */
+    default int[] solveIndices(Point[] points) {
+        IdentityHashMap<Point, Integer> indexOf = new IdentityHashMap<>(points.length);
+        for (int i = 0; i < points.length; i++)
+            indexOf.put(points[i], i);
+        Point[] convex = solve(points);
+        int[] result = new int[convex.length];
+        for (int i = 0; i < convex.length; i++)
+            result[i] = indexOf.get(convex[i]);
+        return result;
+    }
+}
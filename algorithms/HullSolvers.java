@@ -0,0 +1,76 @@
+package algorithms;
+
+import setup.Point;
+
+/**
+ * The compute side of every algorithm
+ * Runs the direct implementation of the algorithm on a copy of the points, the animation is never set up
+ */
+public enum HullSolvers implements HullSolver {
+    JARVIS_MARCH {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new JarvisMarch(points); }
+    },
+    GRAHAM_SCAN {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new GrahamScan(points); }
+    },
+    QUICK_HULL {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new QuickHull(points); }
+    },
+    DIVIDE_AND_CONQUER {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new DivideNConquer(points); }
+    },
+    MONOTONE_CHAIN {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new MonotoneChain(points, true); }
+    },
+    INCREMENTAL {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new Incremental(points); }
+    },
+    RANDOMIZED_INCREMENTAL {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new RandomizedIncremental(points); }
+    },
+    MARRIAGE_BEFORE_CONQUEST {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new MarriageBeforeConquest(points); }
+    },
+    CHAN {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new ChanAlgorithm(points); }
+    },
+    GRID {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new GridHull(points); }
+    },
+    AUTO {
+        @Override
+        ConvexHullAlgorithm create(Point[] points) { return new AutoHull(points); }
+    };
+
+    /**
+     * @param points the points the algorithm works on, the algorithm may reorder them
+     * @return the algorithm
+     */
+    abstract ConvexHullAlgorithm create(Point[] points);
+
+    @Override
+    public Point[] solve(Point[] points) {
+        return create(points.clone()).getResult();
+    }
+
+    /**
+     * Finds the convex hull of the points, the algorithm checks the token every few thousand steps
+     * @param points the points to find the convex hull of
+     * @param cancellation the token to check
+     * @return the convex hull, or the reason there is none
+     */
+    @Override
+    public HullResult solve(Point[] points, CancellationToken cancellation) {
+        return HullResult.run(cancellation, () -> create(points.clone()).setCancellation(cancellation).getResult());
+    }
+}
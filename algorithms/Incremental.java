@@ -20,7 +20,7 @@ public class Incremental extends ConvexHullAlgorithm{
      */
 
     private final Point[] points;
-    private final PointCircular convex;
+    private PointCircular convex;
     private boolean isComplete;
     private final int size;
 
@@ -34,8 +34,14 @@ public class Incremental extends ConvexHullAlgorithm{
         isComplete = false;
         size = points.length;
         isStart = false;
+    }
 
-        HeapSort.sort(points, Point.BYXORDER);
+    /**
+     * Sorts the points and starts the convex from the leftmost point
+     * Done when the algorithm first runs instead of in the constructor so nothing is sorted until then
+     */
+    private void sortPoints() {
+        HeapSort.sort(points, cancellable(Point.BYXORDER));
         convex = new PointCircular(points[0]);
     }
 
@@ -46,6 +52,7 @@ public class Incremental extends ConvexHullAlgorithm{
      */
     @Override
     public void draw(AnimationArea animationArea) {
+        if (convex == null) sortPoints();
         for (Point pt: points){
             pt.setRed(false);
             animationArea.drawPoint(pt);
@@ -116,7 +123,7 @@ public class Incremental extends ConvexHullAlgorithm{
      * @return the points that forms the convex hull
      */
     private Point[] directImp() {
-        // the sorting step is already done in the constructor to enable the draw feature to work
+        if (convex == null) sortPoints();
         int secondInd = 1;
         while (secondInd + 1 < size &&
                 points[secondInd+1].getX() == points[0].getX())
@@ -130,6 +137,7 @@ public class Incremental extends ConvexHullAlgorithm{
                 i++;
             prevX = points[i].getX();
 
+            checkCancelled();
             merge(new PointCircular(points[i]));
         }
 
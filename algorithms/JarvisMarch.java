@@ -142,6 +142,7 @@ public class JarvisMarch extends ConvexHullAlgorithm{
 
         int first = leftmostInd;
         while (true) {
+            checkCancelled(size); // every pass looks at every point
             int second = (first + 1) % size;
             for (int third = 0; third < size; third++) {
                 int dir = Point.direction(points[first], points[second], points[third]);
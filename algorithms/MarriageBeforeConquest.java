@@ -7,7 +7,11 @@ package algorithms;
 import setup.*;
 import userinterface.AnimationArea;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class MarriageBeforeConquest extends ConvexHullAlgorithm{
     /**
@@ -56,6 +60,8 @@ public class MarriageBeforeConquest extends ConvexHullAlgorithm{
         }
     }
 
+    private static final int PARALLEL_CUTOFF = 1 << 13; // subproblems smaller than this are not worth forking
+
     private final Point[] points;
     private final HashSet<Point> finalConvex;
     private boolean isComplete;
@@ -513,318 +519,361 @@ public class MarriageBeforeConquest extends ConvexHullAlgorithm{
     /**
      * The direct implementation of the Marriage Before Conquest algorithm
      * Also serves as the rough draft of the draw feature
-     * @return an array of points representing the convex hull
+     * @return the points that forms the convex hull in counterclockwise order, starting from the leftmost point
      */
     private Point[] directImp() {
-        upperHull();
-        lowerHull();
-        Point[] result = new Point[finalConvex.size()];
-        return finalConvex.toArray(result);
+        Workspace upperSpace = new Workspace(new Point[points.length], 1, points.length, getCancellation());
+        Workspace lowerSpace = new Workspace(new Point[points.length], -1, points.length, getCancellation());
+        if (points.length < PARALLEL_CUTOFF)
+            return join(lowerSpace.hull(points), upperSpace.hull(points));
+
+        // the upper hull and the lower hull do not depend on each other
+        ForkJoinTask<Point[]> lowerTask = ForkJoinTask.adapt(() -> lowerSpace.hull(points)).fork();
+        Point[] upper = upperSpace.hull(points);
+        return join(lowerTask.join(), upper);
     }
 
     /**
-     * Construct the upper hull of the convex hull
-     * Eliminates the collinear points on the leftmost and rightmost side
-     * Initiate the process of connecting points in the lower hull
+     * Joins the lower hull and the upper hull into one convex hull
+     * @param lower the lower hull from left to right
+     * @param upper the upper hull from left to right
+     * @return the points of the convex hull in counterclockwise order
      */
-    private void upperHull() {
-        Point leftMost = null;
-        Point rightMost = null;
-        for (Point pt: points) {
-            if (leftMost == null || pt.getX() < leftMost.getX())
-                leftMost = pt;
-            else if (pt.getX() == leftMost.getX() &&
-                    pt.getY() > leftMost.getY())
-                leftMost = pt;
-            if (rightMost == null || pt.getX() > rightMost.getX())
-                rightMost = pt;
-            else if (pt.getX() == rightMost.getX() &&
-                    pt.getY() > rightMost.getY())
-                rightMost = pt;
-        }
-
-        Stack<Point> tempPoints = new Stack<>();
-        tempPoints.push(leftMost);
-        tempPoints.push(rightMost);
-        for (Point pt: points) {
-            if (pt.getX() != leftMost.getX() && pt.getX() != rightMost.getX())
-                tempPoints.push(pt);
-        }
-        Point[] tempPtsArr = new Point[tempPoints.size()];
-        connect(leftMost, rightMost, tempPoints.toArray(tempPtsArr), true);
+    private static Point[] join(Point[] lower, Point[] upper) {
+        int start = upper.length - 1;
+        int end = 0;
+        if (upper[start].equals(lower[lower.length-1])) start--; // the upper hull and lower hull share the rightmost point
+        if (upper[end].equals(lower[0])) end++; // the upper hull and lower hull share the leftmost point
+        Point[] result = new Point[lower.length + Math.max(start - end + 1, 0)];
+        System.arraycopy(lower, 0, result, 0, lower.length);
+        int pointer = lower.length;
+        for (int i = start; i >= end; i--)
+            result[pointer++] = upper[i];
+        return result;
     }
 
     /**
-     * Constructs the bridge in the upper hull
-     * @param tempPoints an array of points
-     * @param middleX an integer representing the median x
-     * @return a line constructing the upper bridge
+     * The buffers the direct implementation works in
+     * Every level of the recursion works on a range of the same arrays so nothing is allocated while the hull is built
+     * A connect call that is forked gets its own buffers but shares the section, since the ranges do not overlap
+     * The lower hull is built as the upper hull of the points flipped upside down
      */
-    private static Line upperBridge(Point[] tempPoints, int middleX) {
-        Stack<Point> candidates = new Stack<>();
-        if (tempPoints.length == 2) return new Line(tempPoints[0], tempPoints[1]);
+    private static class Workspace {
+        private final Point[] section; // the points that are left for each connect call, split in place
+        private final Point[] candidates; // the points that could still be part of the bridge
+        private final int[] pairs; // the index of the pairs in candidates, used to select the median slope
+        private final Point[] chain; // the hull that is being built from left to right
+        private int chainSize;
+        private final int sign; // 1 when working on the upper hull, -1 when working on the lower hull
+        private Point bridgeLeft, bridgeRight;
+        private final CancellationToken cancellation; // checked on every connect call
 
-        Stack<Line> pairs = new Stack<>();
-        for (int i = 0; i < tempPoints.length; i++) { // Pair up the points
-            if (i + 1 < tempPoints.length) {
-                if (tempPoints[i].getX()==tempPoints[i+1].getX()) {
-                    if (tempPoints[i].getY() > tempPoints[i+1].getY()) // upper point for upper hull
-                        candidates.push(tempPoints[i]);
-                    else
-                        candidates.push(tempPoints[i+1]);
-                    i++;
-                }
-                else
-                    pairs.push(new Line(tempPoints[i], tempPoints[++i]));
-            }
-            else
-                candidates.push(tempPoints[i]);
+        /**
+         * @param section the array the connect calls split the points in
+         * @param sign 1 for the upper hull, -1 for the lower hull
+         * @param size the most points a connect call using this workspace will see
+         * @param cancellation checked on every connect call
+         */
+        Workspace(Point[] section, int sign, int size, CancellationToken cancellation) {
+            this.section = section;
+            this.sign = sign;
+            this.cancellation = cancellation;
+            candidates = new Point[size + 2];
+            pairs = new int[size/2 + 2];
+            chain = new Point[size + 2];
         }
 
-        Line[] pairsArr = new Line[pairs.size()];
-        double medSlope;
-        if(pairs.size() < 5)
-            medSlope = avg(pairs.toArray(pairsArr));
-        else
-            medSlope = median(pairs.toArray(pairsArr));
-
-        Stack<Line> small = new Stack<>();
-        Stack<Line> equal = new Stack<>();
-        Stack<Line> large = new Stack<>();
-        for (Line pair : pairs) {
-            if(pair.slope() < medSlope)
-                small.push(pair);
-            else if (pair.slope() == medSlope)
-                equal.push(pair);
-            else if (pair.slope() > medSlope)
-                large.push(pair);
-        }
+        /**
+         * Construct the upper hull or the lower hull
+         * Eliminates the collinear points on the leftmost and rightmost side
+         * and the points that are under the line between the leftmost and rightmost point
+         * @param points the points to build the hull from
+         * @return the points of the hull from left to right
+         */
+        Point[] hull(Point[] points) {
+            chainSize = 0;
+            Point leftMost = null;
+            Point rightMost = null;
+            for (Point pt: points) {
+                if (leftMost == null || pt.getX() < leftMost.getX() ||
+                        pt.getX() == leftMost.getX() && y(pt) > y(leftMost))
+                    leftMost = pt;
+                if (rightMost == null || pt.getX() > rightMost.getX() ||
+                        pt.getX() == rightMost.getX() && y(pt) > y(rightMost))
+                    rightMost = pt;
+            }
 
-        Stack<Point> max = null;
-        Point minXPt = null;
-        Point maxXPt = null;
-        double maxVal = Double.NEGATIVE_INFINITY;
-        for (Point pt: tempPoints) { // find the top point
-            double val = pt.getY() - medSlope * pt.getX();
-            if (val > maxVal) {
-                max = new Stack<>();
-                maxVal = val;
-                max.push(pt);
-                minXPt = pt;
-                maxXPt = pt;
+            int count = 0;
+            for (Point pt: points) {
+                if (pt.getX() > leftMost.getX() && pt.getX() < rightMost.getX() && isAbove(leftMost, rightMost, pt))
+                    section[count++] = pt;
             }
-            else if (val == maxVal) {
-                max.push(pt);
-                if (pt.getX() < minXPt.getX())
-                    minXPt = pt;
-                if (pt.getX() > maxXPt.getX())
-                    maxXPt = pt;
+            chain[chainSize++] = leftMost;
+            if (!leftMost.equals(rightMost)) {
+                connect(leftMost, rightMost, 0, count);
+                chain[chainSize++] = rightMost;
             }
+            return Arrays.copyOf(chain, chainSize);
         }
 
-        if (minXPt.getX() <= middleX && maxXPt.getX() > middleX)
-            return new Line(minXPt, maxXPt);
-        else if (maxXPt.getX() <= middleX) {
-            for(Line line: large)
-                candidates.push(line.getSecondPt());
-            for (Line line: equal) {
-                candidates.push(line.getSecondPt());
-            }
-            for (Line line: small) {
-                candidates.push(line.getFirstPt());
-                candidates.push(line.getSecondPt());
+        /**
+         * Connects the hull together by recursively constructing bridges in between
+         * Adds the points of the hull that are strictly between the two points to the chain
+         * @param pt1 the leftmost point
+         * @param pt2 the rightmost point
+         * @param startInd the start of the range in section that is between and above the two points
+         * @param endInd the end of the range
+         */
+        private void connect(Point pt1, Point pt2, int startInd, int endInd) {
+            if (startInd == endInd) return;
+            cancellation.check();
+            int count = endInd - startInd + 2;
+            candidates[0] = pt1;
+            candidates[1] = pt2;
+            System.arraycopy(section, startInd, candidates, 2, endInd - startInd);
+            int middleX = select(candidates, 0, count, (count-1)/2).getX();
+            bridge(count, middleX);
+            Point leftPt = bridgeLeft;
+            Point rightPt = bridgeRight;
+
+            // move the points that are left of the bridge to the front, then the points that are right of it
+            int leftEnd = startInd;
+            for (int i = startInd; i < endInd; i++) {
+                if (section[i].getX() < leftPt.getX() && isAbove(pt1, leftPt, section[i]))
+                    exchange(section, i, leftEnd++);
+            }
+            int rightEnd = leftEnd;
+            for (int i = leftEnd; i < endInd; i++) {
+                if (section[i].getX() > rightPt.getX() && isAbove(rightPt, pt2, section[i]))
+                    exchange(section, i, rightEnd++);
+            }
+
+            // the two sides are independent, a large right side is forked while this thread works on the left side
+            ConnectTask rightTask = null;
+            if (rightEnd - leftEnd >= PARALLEL_CUTOFF && !rightPt.equals(pt2)) {
+                rightTask = new ConnectTask(new Workspace(section, sign, rightEnd - leftEnd, cancellation), rightPt, pt2, leftEnd, rightEnd);
+                rightTask.fork();
+            }
+
+            if (!leftPt.equals(pt1)) {
+                connect(pt1, leftPt, startInd, leftEnd);
+                chain[chainSize++] = leftPt;
+            }
+            if (!rightPt.equals(pt2)) {
+                chain[chainSize++] = rightPt;
+                if (rightTask == null)
+                    connect(rightPt, pt2, leftEnd, rightEnd);
+                else {
+                    rightTask.join();
+                    Workspace rightSpace = rightTask.workspace;
+                    System.arraycopy(rightSpace.chain, 0, chain, chainSize, rightSpace.chainSize);
+                    chainSize += rightSpace.chainSize;
+                }
             }
         }
-        else if (minXPt.getX() > middleX) {
-            for (Line line:small)
-                candidates.push(line.getFirstPt());
-            for (Line line: equal) {
-                candidates.push(line.getFirstPt());
+
+        /**
+         * Constructs the bridge over the median x, the candidates are pruned in place until the bridge is found
+         * The ends of the bridge are stored in bridgeLeft and bridgeRight
+         * @param count the number of candidates
+         * @param middleX an integer representing the median x
+         */
+        private void bridge(int count, int middleX) {
+            while (count > 2) {
+                // pair up the points, the point with the smaller x goes first
+                int pairCount = 0;
+                for (int i = 0; i + 1 < count; i += 2) {
+                    if (candidates[i].getX() > candidates[i+1].getX())
+                        exchange(candidates, i, i+1);
+                    if (candidates[i].getX() != candidates[i+1].getX())
+                        pairs[pairCount++] = i;
+                }
+
+                Point minXPt = null;
+                Point maxXPt = null;
+                long dx = 0;
+                long dy = 0;
+                if (pairCount > 0) {
+                    int medPair = selectPair(0, pairCount, pairCount/2);
+                    dx = candidates[medPair+1].getX() - candidates[medPair].getX();
+                    dy = y(candidates[medPair+1]) - y(candidates[medPair]);
+
+                    // find the top points for the median slope
+                    for (int i = 0; i < count; i++) {
+                        Point pt = candidates[i];
+                        long val = (minXPt == null) ? 1 :
+                                (y(pt) - y(minXPt)) * dx - dy * (pt.getX() - minXPt.getX());
+                        if (val > 0) {
+                            minXPt = pt;
+                            maxXPt = pt;
+                        }
+                        else if (val == 0) {
+                            if (pt.getX() < minXPt.getX()) minXPt = pt;
+                            if (pt.getX() > maxXPt.getX()) maxXPt = pt;
+                        }
+                    }
+                    if (minXPt.getX() <= middleX && maxXPt.getX() > middleX) {
+                        bridgeLeft = minXPt;
+                        bridgeRight = maxXPt;
+                        return;
+                    }
+                }
+
+                // prune the points that could not be part of the bridge
+                int kept = 0;
+                int i = 0;
+                for (; i + 1 < count; i += 2) {
+                    Point first = candidates[i];
+                    Point second = candidates[i+1];
+                    if (first.getX() == second.getX()) { // upper point for upper hull
+                        candidates[kept++] = (y(first) > y(second)) ? first : second;
+                        continue;
+                    }
+                    long cmp = (y(second) - y(first)) * dx - dy * (second.getX() - first.getX());
+                    if (maxXPt.getX() <= middleX) { // the bridge has a smaller slope
+                        if (cmp < 0) candidates[kept++] = first;
+                        candidates[kept++] = second;
+                    }
+                    else { // the bridge has a larger slope
+                        candidates[kept++] = first;
+                        if (cmp > 0) candidates[kept++] = second;
+                    }
+                }
+                if (i < count)
+                    candidates[kept++] = candidates[i];
+                count = kept;
             }
-            for (Line line: large) {
-                candidates.push(line.getFirstPt());
-                candidates.push(line.getSecondPt());
+            if (candidates[0].getX() < candidates[1].getX()) {
+                bridgeLeft = candidates[0];
+                bridgeRight = candidates[1];
+            }
+            else {
+                bridgeLeft = candidates[1];
+                bridgeRight = candidates[0];
             }
         }
 
-        Point[] candidatesArr = new Point[candidates.size()];
-        return upperBridge(candidates.toArray(candidatesArr), middleX);
-    }
-
-    /**
-     * Construct the lower hull of the convex hull
-     * Eliminates the collinear points on the leftmost and rightmost side
-     * Initiate the process of connecting points in the lower hull
-     */
-    private void lowerHull() {
-        Point leftMost = null;
-        Point rightMost = null;
-        for (Point pt: points) {
-            if (leftMost == null || pt.getX() < leftMost.getX())
-                leftMost = pt;
-            else if (pt.getX() == leftMost.getX() &&
-                    pt.getY() < leftMost.getY())
-                leftMost = pt;
-            if (rightMost == null || pt.getX() > rightMost.getX())
-                rightMost = pt;
-            else if (pt.getX() == rightMost.getX() &&
-                    pt.getY() < rightMost.getY())
-                rightMost = pt;
-        }
-        Stack<Point> tempPoints = new Stack<>();
-        tempPoints.push(leftMost);
-        tempPoints.push(rightMost);
-        for (Point pt: points) {
-            if (pt.getX() != leftMost.getX() && pt.getX() != rightMost.getX())
-                tempPoints.push(pt);
+        /**
+         * Rearranges the range so the k-th smallest x is at index k
+         * @param items the array to work on
+         * @param startInd the start of the range
+         * @param endInd the end of the range
+         * @param k the index to select
+         * @return the point with the k-th smallest x
+         */
+        private static Point select(Point[] items, int startInd, int endInd, int k) {
+            int lo = startInd;
+            int hi = endInd - 1;
+            while (lo < hi) {
+                exchange(items, lo + ThreadLocalRandom.current().nextInt(hi - lo + 1), hi);
+                int pivot = items[hi].getX();
+                int store = lo;
+                for (int i = lo; i < hi; i++) {
+                    if (items[i].getX() < pivot)
+                        exchange(items, i, store++);
+                }
+                exchange(items, store, hi);
+                if (store == k) break;
+                else if (store < k) lo = store + 1;
+                else hi = store - 1;
+            }
+            return items[k];
         }
-        Point[] tempPtsArr = new Point[tempPoints.size()];
-        connect(leftMost, rightMost, tempPoints.toArray(tempPtsArr), false);
-    }
 
-    /**
-     * Construct the bridge in the lower hull
-     * @param tempPoints an array of points
-     * @param middleX an integer representing the median x
-     * @return a line constructing the lower bridge
-     */
-    private static Line lowerBridge (Point[] tempPoints, int middleX) {
-        Stack<Point> candidates = new Stack<>();
-        if (tempPoints.length==2)
-            return new Line(tempPoints[0],tempPoints[1]);
-        Stack<Line> pairs = new Stack<>();
-
-        for (int i = 0; i < tempPoints.length; i++) { // Pair up the points
-            if (i + 1 < tempPoints.length) {
-                if (tempPoints[i].getX()==tempPoints[i+1].getX()) {
-                    if (tempPoints[i].getY() < tempPoints[i+1].getY()) // lower point for lower hull
-                        candidates.push(tempPoints[i]);
-                    else
-                        candidates.push(tempPoints[i+1]);
-                    i++;
+        /**
+         * Rearranges the pairs so the pair with the k-th smallest slope is at index k
+         * @param startInd the start of the range in pairs
+         * @param endInd the end of the range in pairs
+         * @param k the index to select
+         * @return the index in candidates of the first point of the selected pair
+         */
+        private int selectPair(int startInd, int endInd, int k) {
+            int lo = startInd;
+            int hi = endInd - 1;
+            while (lo < hi) {
+                exchange(pairs, lo + ThreadLocalRandom.current().nextInt(hi - lo + 1), hi);
+                int pivot = pairs[hi];
+                int store = lo;
+                for (int i = lo; i < hi; i++) {
+                    if (compareSlope(pairs[i], pivot) < 0)
+                        exchange(pairs, i, store++);
                 }
-                else
-                    pairs.push(new Line(tempPoints[i], tempPoints[++i]));
+                exchange(pairs, store, hi);
+                if (store == k) break;
+                else if (store < k) lo = store + 1;
+                else hi = store - 1;
             }
-            else
-                candidates.push(tempPoints[i]);
+            return pairs[k];
         }
 
-        Line[] pairsArr = new Line[pairs.size()];
-        double medSlope;
-        if(pairs.size() < 5)
-            medSlope = avg(pairs.toArray(pairsArr));
-        else
-            medSlope = median(pairs.toArray(pairsArr));
-
-        Stack<Line> small = new Stack<>();
-        Stack<Line> equal = new Stack<>();
-        Stack<Line> large = new Stack<>();
-        for (Line pair : pairs) {
-            if(pair.slope() < medSlope)
-                small.push(pair);
-            else if (pair.slope() == medSlope)
-                equal.push(pair);
-            else if (pair.slope() > medSlope)
-                large.push(pair);
+        /**
+         * Compares the slopes of two pairs without dividing
+         * @param pair1 the index in candidates of the first pair
+         * @param pair2 the index in candidates of the second pair
+         * @return negative if the first pair has the smaller slope, positive if it has the larger slope, otherwise 0
+         */
+        private int compareSlope(int pair1, int pair2) {
+            long dx1 = candidates[pair1+1].getX() - candidates[pair1].getX();
+            long dy1 = y(candidates[pair1+1]) - y(candidates[pair1]);
+            long dx2 = candidates[pair2+1].getX() - candidates[pair2].getX();
+            long dy2 = y(candidates[pair2+1]) - y(candidates[pair2]);
+            return Long.compare(dy1 * dx2, dy2 * dx1);
         }
 
-        Stack<Point> min = null;
-        Point minXPt = null;
-        Point maxXPt = null;
-        double minVal = Double.POSITIVE_INFINITY;
-        for (Point pt: tempPoints) { // find the bottom point
-            double val = pt.getY() - medSlope * pt.getX();
-            if (val < minVal) {
-                min = new Stack<>();
-                minVal = val;
-                min.push(pt);
-                minXPt = pt;
-                maxXPt = pt;
-            }
-            else if (val == minVal) {
-                min.push(pt);
-                if (pt.getX() < minXPt.getX())
-                    minXPt = pt;
-                if (pt.getX() > maxXPt.getX())
-                    maxXPt = pt;
-            }
+        /**
+         * @param pt the point
+         * @return the y of the point, flipped when working on the lower hull
+         */
+        private long y(Point pt) {
+            return sign * (long) pt.getY();
         }
 
-        if (minXPt.getX() <= middleX && maxXPt.getX() > middleX)
-            return new Line(minXPt, maxXPt);
-        else if (maxXPt.getX() <= middleX) {
-            for(Line line: large) {
-                candidates.push(line.getFirstPt());
-                candidates.push(line.getSecondPt());
-            }
-            for (Line line: equal) {
-                candidates.push(line.getSecondPt());
-            }
-            for (Line line: small) {
-                candidates.push(line.getSecondPt());
-            }
-        }
-        else if (minXPt.getX() > middleX) {
-            for (Line line:small) {
-                candidates.push(line.getFirstPt());
-                candidates.push(line.getSecondPt());
-            }
-            for (Line line: equal) {
-                candidates.push(line.getFirstPt());
-            }
-            for (Line line: large) {
-                candidates.push(line.getFirstPt());
-            }
+        /**
+         * @param pt1 the left point of the line
+         * @param pt2 the right point of the line
+         * @param pt the point to be checked
+         * @return true if the point is strictly above the line
+         */
+        private boolean isAbove(Point pt1, Point pt2, Point pt) {
+            long val = (pt2.getX() - (long) pt1.getX()) * (y(pt) - y(pt1)) - (y(pt2) - y(pt1)) * (pt.getX() - (long) pt1.getX());
+            return val > 0;
         }
 
-        Point[] candidatesArr = new Point[candidates.size()];
-        return lowerBridge(candidates.toArray(candidatesArr), middleX);
+        private static void exchange(Point[] items, int i, int j) {
+            Point temp = items[i];
+            items[i] = items[j];
+            items[j] = temp;
+        }
 
+        private static void exchange(int[] items, int i, int j) {
+            int temp = items[i];
+            items[i] = items[j];
+            items[j] = temp;
+        }
     }
 
     /**
-     * Connects the hull together by recursively constructing bridges in betweeen
-     * @param pt1 the leftmost point
-     * @param pt2 the rightmost point
-     * @param tempPoints an array of points
-     * @param isUpper true if currently working on the upper hull, otherwise false
+     * A connect call that runs on the fork-join pool
+     * The points it finds are left in the chain of its workspace
      */
-    private void connect(Point pt1, Point pt2, Point[] tempPoints, boolean isUpper) {
-        int middleX = median(tempPoints);
-        Line edge;
-        if (isUpper)
-            edge = upperBridge(tempPoints, middleX);
-        else
-            edge = lowerBridge(tempPoints, middleX);
+    private static class ConnectTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-        Point leftPt = edge.getFirstPt();
-        Point rightPt = edge.getSecondPt();
-        Stack<Point> left = new Stack<>();
-        left.push(leftPt);
-        Stack<Point> right = new Stack<>();
-        right.push(rightPt);
-        for(Point pt: tempPoints) {
-            if (pt.getX() < leftPt.getX())
-                left.push(pt);
-            if(pt.getX() > rightPt.getX())
-                right.push(pt);
-        }
+        private final Workspace workspace;
+        private final Point pt1, pt2;
+        private final int startInd, endInd;
 
-        if (leftPt.equals(pt1)){
-            finalConvex.add(pt1);
-        }
-        else if (left.size() > 0){
-            Point[] leftArr = new Point[left.size()];
-            connect(pt1, leftPt, left.toArray(leftArr), isUpper);
+        ConnectTask(Workspace workspace, Point pt1, Point pt2, int startInd, int endInd) {
+            this.workspace = workspace;
+            this.pt1 = pt1;
+            this.pt2 = pt2;
+            this.startInd = startInd;
+            this.endInd = endInd;
         }
 
-        if (rightPt.equals(pt2)) {
-            finalConvex.add(pt2);
-        }
-        else if (right.size() > 0 ){
-            Point[] rightArr = new Point[right.size()];
-            connect(rightPt, pt2, right.toArray(rightArr), isUpper);
+        @Override
+        protected void compute() {
+            workspace.connect(pt1, pt2, startInd, endInd);
         }
     }
 
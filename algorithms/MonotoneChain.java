@@ -7,6 +7,7 @@ package algorithms;
 import setup.HeapSort;
 import setup.Point;
 import setup.PointStack;
+import setup.RadixSort;
 import userinterface.AnimationArea;
 
 public class MonotoneChain extends ConvexHullAlgorithm{
@@ -24,6 +25,7 @@ public class MonotoneChain extends ConvexHullAlgorithm{
     private final PointStack convex;
     private boolean isComplete;
     private final int size;
+    private final boolean useRadixSort;
 
     private boolean isStart;
     private boolean isLowerDone, isUpperDone;
@@ -31,8 +33,19 @@ public class MonotoneChain extends ConvexHullAlgorithm{
     private int prevX, index, lowerSizeDraw;
 
     public MonotoneChain(Point[] points)
+    {
+        this(points, false);
+    }
+
+    /**
+     * @param points the points to find the convex hull of
+     * @param useRadixSort true to sort the points with radix sort instead of heapsort,
+     *                     faster when there are many points in a small coordinate range
+     */
+    public MonotoneChain(Point[] points, boolean useRadixSort)
     {
         this.points = points;
+        this.useRadixSort = useRadixSort;
         isComplete = false;
         size = points.length;
 
@@ -67,7 +80,7 @@ public class MonotoneChain extends ConvexHullAlgorithm{
      */
     private void firstStep() {
         isStart = true;
-        HeapSort.sort(points, Point.BYXORDER);
+        sort();
         index = 0;
         firstPt = points[0];
         prevX = points[index].getX();
@@ -78,7 +91,7 @@ public class MonotoneChain extends ConvexHullAlgorithm{
      * Represents the first loop of the implementation
      */
     private void lowerHull() {
-        if (convex.size() > 1 && Point.direction(convex.lastTwo()[1], convex.lastPt(), points[index]) <= 0)
+        if (convex.size() > 1 && Point.orientation(convex.lastTwo()[1], convex.lastPt(), points[index]) <= 0)
         {
             convex.pop();
         }
@@ -105,7 +118,7 @@ public class MonotoneChain extends ConvexHullAlgorithm{
      * Represents the second loop of the implementation
      */
     private void upperHull() {
-        if (convex.size() > lowerSizeDraw && Point.direction(convex.lastTwo()[1], convex.lastPt(), points[index]) <= 0)
+        if (convex.size() > lowerSizeDraw && Point.orientation(convex.lastTwo()[1], convex.lastPt(), points[index]) <= 0)
         {
             convex.pop();
         }
@@ -159,16 +172,17 @@ public class MonotoneChain extends ConvexHullAlgorithm{
      * @return the points that forms the convex hull
      */
     private Point[] directImp() {
-        HeapSort.sort(points, Point.BYXORDER);
+        sort();
 
-        int prevX = -1;
+        int prevX = 0;
         // lower hull
         for (int i = 0; i < size; i++)
         {
-            while(i+1< size && points[i].getX() == prevX) i++; // ignore the points in middle of a vertical collinear line
+            while(i > 0 && i+1< size && points[i].getX() == prevX) i++; // ignore the points in middle of a vertical collinear line
             prevX = points[i].getX();
+            checkCancelled();
 
-            while (convex.size() > 1 && Point.direction(convex.lastTwo()[1], convex.lastPt(), points[i]) <= 0)
+            while (convex.size() > 1 && Point.orientation(convex.lastTwo()[1], convex.lastPt(), points[i]) <= 0)
             {
                 convex.pop();
             }
@@ -176,14 +190,14 @@ public class MonotoneChain extends ConvexHullAlgorithm{
         }
 
         int lowerSize = convex.size();
-        prevX = -1;
         // upper hull
         for (int i = size-2; i >= 0; i--)
         {
-            while (i-1 > 0 && points[i].getX() == prevX) i--; // ignore the points in middle of a vertical collinear line
+            while (i < size-2 && i-1 > 0 && points[i].getX() == prevX) i--; // ignore the points in middle of a vertical collinear line
             prevX = points[i].getX();
+            checkCancelled();
 
-            while (convex.size() > lowerSize && Point.direction(convex.lastTwo()[1], convex.lastPt(), points[i]) <= 0)
+            while (convex.size() > lowerSize && Point.orientation(convex.lastTwo()[1], convex.lastPt(), points[i]) <= 0)
             {
                 convex.pop();
             }
@@ -193,6 +207,26 @@ public class MonotoneChain extends ConvexHullAlgorithm{
         return convex.getConvex();
     }
 
+    /**
+     * Sorts the points by X order, skipped when the points are already sorted
+     */
+    private void sort() {
+        if (isSorted()) return;
+        if (useRadixSort) RadixSort.sortByX(points);
+        else HeapSort.sort(points, cancellable(Point.BYXORDER));
+    }
+
+    /**
+     * @return true if the points are already in X order
+     */
+    private boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (Point.BYXORDER.compare(points[i-1], points[i]) > 0)
+                return false;
+        }
+        return true;
+    }
+
     /**
      * @return the time interval the animation should run at
      */
@@ -0,0 +1,128 @@
+/*
+  Online Convex Hull
+       Time Complexity: O(log n) amortized for each point added
+ */
+package algorithms;
+
+import setup.Point;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class OnlineHull {
+
+    /**
+     * Keeps the convex hull up to date as points are added one at a time
+     * The upper hull and the lower hull are kept in two tree maps from x to the point with that x
+     * A new point below the upper hull and above the lower hull is inside, found in O(log n)
+     * Otherwise it is put in the chain, and its neighbors that no longer turn the right way are removed,
+     * each point is removed at most once so adding a point takes O(log n) amortized
+     * Collinear points are left out, same as the other algorithms
+     */
+
+    private final TreeMap<Integer, Point> upper = new TreeMap<>(); // the highest point of each x in the upper hull
+    private final TreeMap<Integer, Point> lower = new TreeMap<>(); // the lowest point of each x in the lower hull
+    private int count;
+
+    /**
+     * Adds a point
+     * @param pt the point to add
+     * @return true if the convex hull changed
+     */
+    public boolean add(Point pt) {
+        count++;
+        boolean upperChanged = addToChain(upper, pt, 1);
+        boolean lowerChanged = addToChain(lower, pt, -1);
+        return upperChanged || lowerChanged;
+    }
+
+    /**
+     * Adds the point to one of the chains
+     * @param chain the upper or the lower chain
+     * @param pt the point to add
+     * @param sign 1 for the upper chain, -1 for the lower chain, the lower chain is the upper chain upside down
+     * @return true if the chain changed
+     */
+    private static boolean addToChain(TreeMap<Integer, Point> chain, Point pt, int sign) {
+        int x = pt.getX();
+        Point same = chain.get(x);
+        if (same != null) {
+            if (sign * (pt.getY() - (long) same.getY()) <= 0) return false;
+        }
+        else {
+            Map.Entry<Integer, Point> left = chain.lowerEntry(x);
+            Map.Entry<Integer, Point> right = chain.higherEntry(x);
+            if (left != null && right != null && sign * Point.orientation(left.getValue(), right.getValue(), pt) <= 0)
+                return false; // under the chain or on it
+        }
+        chain.put(x, pt);
+        Map.Entry<Integer, Point> left = chain.lowerEntry(x);
+        Map.Entry<Integer, Point> right = chain.higherEntry(x);
+
+        // remove the neighbors that no longer make a right turn
+        while (left != null) {
+            Map.Entry<Integer, Point> leftLeft = chain.lowerEntry(left.getKey());
+            if (leftLeft == null || sign * Point.orientation(leftLeft.getValue(), left.getValue(), pt) < 0) break;
+            chain.remove(left.getKey());
+            left = leftLeft;
+        }
+        while (right != null) {
+            Map.Entry<Integer, Point> rightRight = chain.higherEntry(right.getKey());
+            if (rightRight == null || sign * Point.orientation(pt, right.getValue(), rightRight.getValue()) < 0) break;
+            chain.remove(right.getKey());
+            right = rightRight;
+        }
+        return true;
+    }
+
+    /**
+     * @param pt the point to check
+     * @return whether the point is inside the convex hull or on its boundary, in O(log n)
+     */
+    public boolean contains(Point pt) {
+        return isUnder(upper, pt, 1) && isUnder(lower, pt, -1);
+    }
+
+    private static boolean isUnder(TreeMap<Integer, Point> chain, Point pt, int sign) {
+        Map.Entry<Integer, Point> left = chain.floorEntry(pt.getX());
+        Map.Entry<Integer, Point> right = chain.ceilingEntry(pt.getX());
+        if (left == null || right == null) return false;
+        if (left.getKey() == pt.getX()) return sign * (pt.getY() - (long) left.getValue().getY()) <= 0;
+        return sign * Point.orientation(left.getValue(), right.getValue(), pt) <= 0;
+    }
+
+    /**
+     * @return the number of points added
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of points in the convex hull
+     */
+    public int size() {
+        if (lower.isEmpty()) return 0;
+        int size = lower.size() + upper.size();
+        if (lower.firstEntry().getValue().equals(upper.firstEntry().getValue())) size--;
+        if (lower.lastEntry().getValue().equals(upper.lastEntry().getValue())) size--;
+        return Math.max(size, 1);
+    }
+
+    /**
+     * @return the points that forms the convex hull in counterclockwise order, starting from the lowest x (lowest y if tie)
+     */
+    public Point[] getResult() {
+        Point[] result = new Point[size()];
+        if (result.length == 0) return result;
+        int pointer = 0;
+        for (Point pt: lower.values())
+            result[pointer++] = pt;
+        for (Point pt: upper.descendingMap().values()) {
+            if (pointer == result.length) break;
+            if (pt.equals(result[pointer - 1])) continue; // the rightmost point shared by both chains
+            result[pointer++] = pt;
+        }
+        return result;
+    }
+}
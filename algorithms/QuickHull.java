@@ -7,6 +7,9 @@ package algorithms;
 import setup.*;
 import userinterface.AnimationArea;
 
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
 public class QuickHull extends ConvexHullAlgorithm {
 
     /**
@@ -30,6 +33,8 @@ public class QuickHull extends ConvexHullAlgorithm {
         }
     }
 
+    private static final int PARALLEL_CUTOFF = 1 << 13; // sections smaller than this are not worth forking
+
     private final Point[] points;
     private final PointStack convex;
     private boolean isComplete;
@@ -245,52 +250,149 @@ public class QuickHull extends ConvexHullAlgorithm {
     /**
      * The direct implementation for the QuickHull implementation
      * Also the rough draft for writing the draw feature
-     * @return the points that forms the convex in an array
+     * The points are split in place, large sections are worked on in parallel on the fork-join pool
+     * @return the points that forms the convex in counterclockwise order, starting from the point with the minimum x
      */
     private Point[] directImp() {
         // the extremes point are searched for in the constructor to enable the draw method to work
-        Line line = new Line(minXPt, maxXPt);
+        int lowerEnd = partition(points, 0, points.length, minXPt, maxXPt);
+        int upperEnd = partition(points, lowerEnd, points.length, maxXPt, minXPt);
 
-        HeapSort.sort(points, line.BYSIDE);
-        int center = findCenter(points, points.length/2, line);
-        calcHull(copyNMax(points, 0, center +2, line), line, false);
-        calcHull(copyNMax(points, center , points.length, line), line, true);
+        SideTask upper = new SideTask(points, maxXPt, minXPt, lowerEnd, upperEnd, getCancellation());
+        if (upperEnd - lowerEnd >= PARALLEL_CUTOFF)
+            upper.fork();
+        else
+            upper.compute();
+        SideTask lower = new SideTask(points, minXPt, maxXPt, 0, lowerEnd, getCancellation());
+        lower.compute();
+        if (upperEnd - lowerEnd >= PARALLEL_CUTOFF)
+            upper.join();
+
+        Point[] result = new Point[lower.chainSize + upper.chainSize + 2];
+        int pointer = 0;
+        result[pointer++] = minXPt;
+        System.arraycopy(lower.chain, 0, result, pointer, lower.chainSize);
+        pointer += lower.chainSize;
+        if (minXPt.equals(maxXPt)) return Arrays.copyOf(result, pointer);
+        result[pointer++] = maxXPt;
+        System.arraycopy(upper.chain, 0, result, pointer, upper.chainSize);
+        return result;
+    }
 
-        return convex.getConvex();
+    /**
+     * Moves the points that are on the right side of the line to the front of the range
+     * @param tempPoints the points to work on
+     * @param startInd the start of the range
+     * @param endInd the end of the range
+     * @param from the point the line starts from
+     * @param to the point the line goes to
+     * @return the end of the points that are on the right side
+     */
+    private static int partition(Point[] tempPoints, int startInd, int endInd, Point from, Point to) {
+        int rightEnd = startInd;
+        for (int i = startInd; i < endInd; i++) {
+            if (rightDist(from, to, tempPoints[i]) > 0) {
+                Point tempPt = tempPoints[rightEnd];
+                tempPoints[rightEnd++] = tempPoints[i];
+                tempPoints[i] = tempPt;
+            }
+        }
+        return rightEnd;
     }
 
     /**
-     * Helper function for directImp that calls itself recursively
-     * @param section the points to work with
-     * @param tempLine the line to work with
-     * @param side true if we are working with the right side
-     *             false if we are working with the left side
+     * The distance is not accurate but is proportional, computed with longs so it does not overflow
+     * @param from the point the line starts from
+     * @param to the point the line goes to
+     * @param pt the point to measure
+     * @return positive if the point is on the right side of the line, negative if on the left side, 0 if on the line
      */
-    private void calcHull(Point[] section, Line tempLine, boolean side) {
-        if (section == null) return;
-        Point furthestPt = section[0];
-        if (tempLine.approxLineDist(furthestPt) == 0) return; // it's collinear
-        convex.push(furthestPt);
+    private static long rightDist(Point from, Point to, Point pt) {
+        return Point.orientation(from, pt, to);
+    }
 
-        if (section.length == 3) return;
+    /**
+     * Finds the points of the convex that are between two points, on the right side of the line between them
+     * The points found are kept in order from the first point to the second point
+     */
+    private static class SideTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Point[] section;
+        private final Point from, to;
+        private final int startInd, endInd;
+        private final Point[] chain;
+        private int chainSize;
+        private final CancellationToken cancellation;
+
+        /**
+         * @param section the array the points are split in
+         * @param from the point the line starts from
+         * @param to the point the line goes to
+         * @param startInd the start of the range in section that is on the right side of the line
+         * @param endInd the end of the range
+         * @param cancellation checked on every recursive call
+         */
+        SideTask(Point[] section, Point from, Point to, int startInd, int endInd, CancellationToken cancellation) {
+            this.section = section;
+            this.from = from;
+            this.to = to;
+            this.startInd = startInd;
+            this.endInd = endInd;
+            this.cancellation = cancellation;
+            chain = new Point[endInd - startInd];
+        }
 
-        Line line1 = new Line(furthestPt, tempLine.getFirstPt());
-        HeapSort.sort(section, line1.BYSIDE);
-        int center = findCenter(section, section.length/2, line1);
+        @Override
+        protected void compute() {
+            calcHull(from, to, startInd, endInd);
+        }
 
-        if (!side)
-            calcHull(copyNMax(section, 0, center +2, line1), line1, side);
-        else
-            calcHull(copyNMax(section, center, section.length, line1), line1, side);
+        /**
+         * Helper function for compute that calls itself recursively
+         * @param tempFrom the point the line starts from
+         * @param tempTo the point the line goes to
+         * @param tempStart the start of the range that is on the right side of the line
+         * @param tempEnd the end of the range
+         */
+        private void calcHull(Point tempFrom, Point tempTo, int tempStart, int tempEnd) {
+            if (tempStart == tempEnd) return;
+            cancellation.check();
+            // if two points are just as far, the one further along the line is used so the collinear points are left out
+            Point furthestPt = null;
+            long furthestDist = 0;
+            long furthestAlong = 0;
+            long dx = (long) tempTo.getX() - tempFrom.getX();
+            long dy = (long) tempTo.getY() - tempFrom.getY();
+            for (int i = tempStart; i < tempEnd; i++) {
+                Point pt = section[i];
+                long dist = rightDist(tempFrom, tempTo, pt);
+                long along = ((long) pt.getX() - tempFrom.getX()) * dx + ((long) pt.getY() - tempFrom.getY()) * dy;
+                if (furthestPt == null || dist > furthestDist || dist == furthestDist && along > furthestAlong) {
+                    furthestPt = pt;
+                    furthestDist = dist;
+                    furthestAlong = along;
+                }
+            }
 
-        Line line2 = new Line( tempLine.getSecondPt(), furthestPt);
-        HeapSort.sort(section, line2.BYSIDE);
-        center = findCenter(section, section.length/2, line2);
+            int firstEnd = partition(section, tempStart, tempEnd, tempFrom, furthestPt);
+            int secondEnd = partition(section, firstEnd, tempEnd, furthestPt, tempTo);
 
-        if(side)
-            calcHull(copyNMax(section,center , section.length, line2), line2, side);
-        else
-            calcHull(copyNMax(section,0 , center +2, line2), line2, side);
+            SideTask secondTask = null;
+            if (secondEnd - firstEnd >= PARALLEL_CUTOFF) {
+                secondTask = new SideTask(section, furthestPt, tempTo, firstEnd, secondEnd, cancellation);
+                secondTask.fork();
+            }
+            calcHull(tempFrom, furthestPt, tempStart, firstEnd);
+            chain[chainSize++] = furthestPt;
+            if (secondTask == null)
+                calcHull(furthestPt, tempTo, firstEnd, secondEnd);
+            else {
+                secondTask.join();
+                System.arraycopy(secondTask.chain, 0, chain, chainSize, secondTask.chainSize);
+                chainSize += secondTask.chainSize;
+            }
+        }
     }
 
     /**
@@ -0,0 +1,284 @@
+/*
+  Randomized Incremental Algorithm
+       Time Complexity: O(n log n) expected
+ */
+package algorithms;
+
+import setup.Point;
+import setup.PointStack;
+import userinterface.AnimationArea;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class RandomizedIncremental extends ConvexHullAlgorithm {
+
+    /**
+     * Shuffles the points and starts the convex from a triangle of the first three points that are not collinear
+     * Every point that is not inserted yet keeps one edge of the convex it can see (its conflict),
+     * and every edge keeps the list of points in conflict with it (Clarkson and Shor)
+     *      A point without a conflict is inside the convex and is thrown away
+     *      Inserting a point walks from its conflict edge both ways to remove every edge it can see,
+     *          then connects the two ends of the edges removed to the point
+     *      Only the points in conflict with a removed edge need a new conflict, and a point outside the new
+     *          convex always sees one of the two new edges, so each one is checked in O(1)
+     * With the points in random order each point changes conflict O(log n) times on expectation
+     * No sort is needed, so the points can also be inserted in the order given,
+     * which is fast when the order is already close to random, but O(n^2) for points sorted along one direction
+     */
+
+    private final Point[] points;
+    private final int size;
+    private final boolean shuffle;
+    private boolean isComplete;
+
+    // vertices and points are both the index of the point, an edge is the index of the vertex it starts from
+    private int[] next, prev; // the vertices around the convex, counterclockwise and clockwise
+    private int[] conflict; // the edge each point sees, -1 once the point is inserted or inside the convex
+    private int[] head, link; // the first point in conflict with each edge, and the next point in the same list
+    private int[] pending; // the points whose edge was removed
+    private int vertex; // any vertex of the convex
+    private int index; // the next point to insert
+    private boolean isStart;
+    private int lastInserted;
+
+    public RandomizedIncremental(Point[] points)
+    {
+        this(points, true);
+    }
+
+    /**
+     * @param points the points to find the convex hull of
+     * @param shuffle false to insert the points in the order given instead of a random order
+     */
+    public RandomizedIncremental(Point[] points, boolean shuffle)
+    {
+        this.points = points;
+        this.shuffle = shuffle;
+        size = points.length;
+        isComplete = false;
+        isStart = false;
+        lastInserted = -1;
+    }
+
+    /**
+     * Shuffles the points and forms the first triangle, every other point gets its conflict
+     * @return false if every point is on one line, so there is no triangle
+     */
+    private boolean setup() {
+        if (shuffle) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = size - 1; i > 0; i--)
+                swap(i, random.nextInt(i + 1));
+        }
+        next = new int[size];
+        prev = new int[size];
+        conflict = new int[size];
+        head = new int[size];
+        link = new int[size];
+        pending = new int[size];
+
+        int second = 1;
+        while (second < size && points[second].equals(points[0])) second++;
+        int third = second + 1;
+        while (third < size && cross(0, second, third) == 0) third++;
+        if (third >= size) return false;
+        swap(1, second);
+        swap(2, third);
+        if (cross(0, 1, 2) < 0) swap(1, 2);
+
+        for (int v = 0; v < 3; v++) {
+            next[v] = (v + 1) % 3;
+            prev[v] = (v + 2) % 3;
+            head[v] = -1;
+        }
+        vertex = 0;
+        for (int q = 3; q < size; q++) {
+            conflict[q] = -1;
+            for (int v = 0; v < 3 && conflict[q] < 0; v++)
+                if (cross(v, next[v], q) < 0) addConflict(q, v);
+        }
+        index = 3;
+        return true;
+    }
+
+    /**
+     * Inserts the point, which sees its conflict edge
+     * @param pt the index of the point
+     */
+    private void insert(int pt) {
+        int edge = conflict[pt];
+        // a collinear edge next to the ones seen is removed too, since its end would be in the middle of an edge
+        int from = edge;
+        while (cross(prev[from], from, pt) <= 0) from = prev[from];
+        int to = next[edge];
+        while (cross(to, next[to], pt) <= 0) to = next[to];
+
+        int count = 0;
+        for (int v = from; v != to; v = next[v]) {
+            for (int q = head[v]; q >= 0; q = link[q]) {
+                checkCancelled();
+                pending[count++] = q;
+            }
+            if (v != from) points[v].setRed(false);
+        }
+        next[from] = pt;
+        prev[pt] = from;
+        next[pt] = to;
+        prev[to] = pt;
+        head[from] = -1;
+        head[pt] = -1;
+        conflict[pt] = -1;
+        vertex = from;
+        points[pt].setRed(true);
+
+        for (int i = 0; i < count; i++) {
+            int q = pending[i];
+            if (q == pt) continue;
+            conflict[q] = -1;
+            if (cross(from, pt, q) < 0) addConflict(q, from);
+            else if (cross(pt, to, q) < 0) addConflict(q, pt);
+        }
+    }
+
+    private void addConflict(int pt, int edge) {
+        conflict[pt] = edge;
+        link[pt] = head[edge];
+        head[edge] = pt;
+    }
+
+    /**
+     * @return positive if a, b, c makes a left turn, negative if it makes a right turn, 0 if collinear
+     */
+    private long cross(int a, int b, int c) {
+        return Point.orientation(points[a], points[b], points[c]);
+    }
+
+    private void swap(int i, int j) {
+        Point temp = points[i];
+        points[i] = points[j];
+        points[j] = temp;
+    }
+
+    /**
+     * Draws the points and lines to the canvas
+     *
+     * @param animationArea the canvas
+     */
+    @Override
+    public void draw(AnimationArea animationArea) {
+        if (!isStart) firstStep();
+        else if (index < size) nextStep();
+        else isComplete = true;
+
+        for (Point pt: points)
+            animationArea.drawPoint(pt);
+        if (next == null) {
+            Point[] ends = collinearEnds();
+            if (ends.length == 2) animationArea.drawLine(animationArea.BLACK, ends[0], ends[1]);
+            return;
+        }
+        // the points not inserted yet point at the edge they see
+        for (int q = index; q < size; q++)
+            if (conflict[q] >= 0) {
+                Point pt1 = points[conflict[q]], pt2 = points[next[conflict[q]]];
+                Point middle = new Point((pt1.getX() + pt2.getX()) / 2, (pt1.getY() + pt2.getY()) / 2);
+                animationArea.drawLine(animationArea.LIGHT_GRAY, points[q], middle);
+            }
+        int v = vertex;
+        do {
+            boolean isNew = v == lastInserted || next[v] == lastInserted;
+            animationArea.drawLine(isNew ? animationArea.RED : animationArea.BLACK, points[v], points[next[v]]);
+            v = next[v];
+        } while (v != vertex);
+    }
+
+    /**
+     * Kicks off the algorithm by forming the first triangle
+     */
+    private void firstStep() {
+        isStart = true;
+        if (size < 3 || !setup()) {
+            for (Point pt: collinearEnds()) pt.setRed(true);
+            next = null;
+            index = size;
+            return;
+        }
+        for (int v = 0; v < 3; v++) points[v].setRed(true);
+    }
+
+    /**
+     * Represents the loop of the direct implementation, skips the points inside the convex and inserts the next one
+     */
+    private void nextStep() {
+        while (index < size && conflict[index] < 0) index++;
+        if (index == size) return;
+        lastInserted = index;
+        insert(index++);
+    }
+
+    /**
+     * whether the convex hull is complete
+     *
+     * @return true if it is completed, otherwise false
+     */
+    @Override
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * @return the points that forms the convex hull
+     */
+    @Override
+    public Point[] getResult() {
+        return directImp();
+    }
+
+    /**
+     * The direct implementation of the Randomized Incremental algorithm
+     * Also serves as the rough draft for the draw feature
+     * @return the points that forms the convex hull, counterclockwise starting from the lowest x (lowest y if tie)
+     */
+    private Point[] directImp() {
+        PointStack result = new PointStack();
+        if (size < 3 || !setup()) {
+            for (Point pt: collinearEnds()) result.push(pt);
+            return result.getConvex();
+        }
+        for (int q = 3; q < size; q++) {
+            checkCancelled();
+            if (conflict[q] >= 0) insert(q);
+        }
+
+        int first = vertex;
+        for (int v = next[vertex]; v != vertex; v = next[v])
+            if (Point.BYXORDER.compare(points[v], points[first]) < 0) first = v;
+        int v = first;
+        do {
+            result.push(points[v]);
+            v = next[v];
+        } while (v != first);
+        return result.getConvex();
+    }
+
+    /**
+     * @return the two ends of the line every point is on, or the only point if they are all the same
+     */
+    private Point[] collinearEnds() {
+        if (size == 0) return new Point[0];
+        Point low = points[0], high = points[0];
+        for (Point pt: points) {
+            if (Point.BYXORDER.compare(pt, low) < 0) low = pt;
+            if (Point.BYXORDER.compare(pt, high) > 0) high = pt;
+        }
+        return low.equals(high) ? new Point[] {low} : new Point[] {low, high};
+    }
+
+    /**
+     * @return the time interval the animation should run at
+     */
+    @Override
+    public int getTime() {
+        return 400;
+    }
+}
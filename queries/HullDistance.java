@@ -0,0 +1,261 @@
+/*
+  GJK Distance Between Convex Hulls
+       Time Complexity: O(h1 + h2) for the first query, about O(1) for each query after a small move
+ */
+package queries;
+
+import setup.Point;
+
+public class HullDistance {
+
+    /**
+     * Finds the distance and the closest points between two convex hulls with the Gilbert-Johnson-Keerthi algorithm
+     * The distance is the distance from the origin to the Minkowski difference of the hulls,
+     * each step finds the point of the difference farthest toward the origin (the support point)
+     * and keeps the one, two or three support points (the simplex) whose hull is closest to the origin
+     * The support point of a hull is found by walking from the last one to the neighbour that goes farther,
+     * for a convex hull the walk can only stop at the farthest vertex, collinear and repeated vertices are walked across
+     * An instance remembers its last simplex and support points and starts the next query from them,
+     * so for hulls that move a little between queries the first step usually finds the answer
+     * One instance should follow one pair of hulls, whose vertices stay in the same order between queries
+     */
+
+    private static final double TOLERANCE = 1e-12; // how little closer a step can get, relative to the distance, before stopping
+    private static final double TIE = 1e-12; // how close two support values are, relative to their size, to be the same
+
+    // the simplex, each point is vertex index1[k] of the first hull minus vertex index2[k] of the second
+    private final int[] index1 = new int[3], index2 = new int[3];
+    private final double[] weights = new double[3];
+    private int size;
+    private int support1, support2;
+
+    private double distance;
+    private final double[] closest = new double[4];
+    private int iterations;
+
+    /**
+     * Finds the distance between two convex hulls, 0 if they touch or overlap
+     * @param hull1 the vertices of the first convex hull in either order, as given by getResult
+     * @param hull2 the vertices of the second convex hull in either order
+     * @return the distance
+     */
+    public double distance(Point[] hull1, Point[] hull2) {
+        if (hull1.length == 0 || hull2.length == 0) throw new IllegalArgumentException("A hull has no points");
+        if (!fits(hull1, hull2)) reset();
+        if (support1 >= hull1.length) support1 = 0;
+        if (support2 >= hull2.length) support2 = 0;
+        if (size == 0) {
+            index1[0] = support1;
+            index2[0] = support2;
+            size = 1;
+        }
+
+        iterations = 0;
+        int limit = hull1.length + hull2.length + 3;
+        double vx, vy;
+        while (true) {
+            if (reduce(hull1, hull2)) {
+                distance = 0;
+                break;
+            }
+            vx = 0;
+            vy = 0;
+            for (int k = 0; k < size; k++) {
+                vx += weights[k] * pointX(hull1, hull2, k);
+                vy += weights[k] * pointY(hull1, hull2, k);
+            }
+            distance = Math.sqrt(vx * vx + vy * vy);
+            if (iterations++ == limit) break;
+
+            // the support point toward the origin
+            support1 = climb(hull1, support1, -vx, -vy);
+            support2 = climb(hull2, support2, vx, vy);
+            boolean known = false;
+            for (int k = 0; k < size; k++)
+                if (index1[k] == support1 && index2[k] == support2) known = true;
+            long wx = (long) hull1[support1].getX() - hull2[support2].getX();
+            long wy = (long) hull1[support1].getY() - hull2[support2].getY();
+            double lengthSquared = vx * vx + vy * vy;
+            if (known || lengthSquared - (vx * wx + vy * wy) <= TOLERANCE * lengthSquared) break;
+            index1[size] = support1;
+            index2[size] = support2;
+            size++;
+        }
+
+        closest[0] = closest[1] = closest[2] = closest[3] = 0;
+        for (int k = 0; k < size; k++) {
+            closest[0] += weights[k] * hull1[index1[k]].getX();
+            closest[1] += weights[k] * hull1[index1[k]].getY();
+            closest[2] += weights[k] * hull2[index2[k]].getX();
+            closest[3] += weights[k] * hull2[index2[k]].getY();
+        }
+        return distance;
+    }
+
+    /**
+     * Forgets the last simplex, the next query starts from scratch
+     */
+    public void reset() {
+        size = 0;
+        support1 = 0;
+        support2 = 0;
+    }
+
+    /**
+     * @return the distance found by the last query
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return the closest point of the first hull and of the second hull found by the last query, x1, y1, x2, y2,
+     *         a point in both hulls if they overlap
+     */
+    public double[] getClosestPoints() {
+        return closest.clone();
+    }
+
+    /**
+     * @return the number of support points the last query looked for
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return whether the simplex from the last query can be used on these hulls
+     */
+    private boolean fits(Point[] hull1, Point[] hull2) {
+        for (int k = 0; k < size; k++)
+            if (index1[k] >= hull1.length || index2[k] >= hull2.length) return false;
+        return true;
+    }
+
+    /**
+     * Walks from a vertex to the neighbour that is farther in the direction until neither is
+     * Neighbours that are just as far (collinear or repeated vertices) are walked across, for a convex hull
+     * they are only at the farthest and the nearest edge, or where a vertex is repeated
+     * @return the vertex of the hull that is the farthest in the direction
+     */
+    private static int climb(Point[] hull, int start, double dx, double dy) {
+        int n = hull.length;
+        double best = dot(hull, start, dx, dy);
+        // the side where the first vertex that isn't just as far is farther
+        int step = 0;
+        for (int side = 1; side >= -1 && step == 0; side -= 2) {
+            for (int k = 1; k < n; k++) {
+                double value = dot(hull, (start + side * k % n + n) % n, dx, dy);
+                if (compare(value, best) == 0) continue;
+                if (compare(value, best) > 0) step = side;
+                break;
+            }
+        }
+        if (step == 0) return start;
+
+        int current = start;
+        int at = start;
+        for (int k = 1; k < n; k++) {
+            at = (at + step + n) % n;
+            double value = dot(hull, at, dx, dy);
+            if (compare(value, best) < 0) break;
+            if (compare(value, best) > 0) {
+                current = at;
+                best = value;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The direction isn't exact, so vertices along an edge at a right angle to it only differ by rounding
+     * @return 0 if the values are the same up to rounding, otherwise the sign of a - b
+     */
+    private static int compare(double a, double b) {
+        if (Math.abs(a - b) <= TIE * (Math.abs(a) + Math.abs(b))) return 0;
+        return (a > b) ? 1 : -1;
+    }
+
+    private static double dot(Point[] hull, int index, double dx, double dy) {
+        return dx * hull[index].getX() + dy * hull[index].getY();
+    }
+
+    private long pointX(Point[] hull1, Point[] hull2, int k) {
+        return (long) hull1[index1[k]].getX() - hull2[index2[k]].getX();
+    }
+
+    private long pointY(Point[] hull1, Point[] hull2, int k) {
+        return (long) hull1[index1[k]].getY() - hull2[index2[k]].getY();
+    }
+
+    /**
+     * Keeps the smallest part of the simplex that holds its closest point to the origin, and sets the weights of that point
+     * The regions are told apart with exact long products, only the weights are divided
+     * @return true if the simplex holds the origin
+     */
+    private boolean reduce(Point[] hull1, Point[] hull2) {
+        if (size == 3) {
+            long px = pointX(hull1, hull2, 0), py = pointY(hull1, hull2, 0);
+            long qx = pointX(hull1, hull2, 1), qy = pointY(hull1, hull2, 1);
+            long rx = pointX(hull1, hull2, 2), ry = pointY(hull1, hull2, 2);
+            long area = (qx - px) * (ry - py) - (qy - py) * (rx - px);
+            long side1 = qx * ry - qy * rx; // twice the area of the origin, q and r
+            long side2 = rx * py - ry * px;
+            long side3 = px * qy - py * qx;
+            if (area != 0 && (area > 0 ? side1 >= 0 && side2 >= 0 && side3 >= 0 : side1 <= 0 && side2 <= 0 && side3 <= 0)) {
+                weights[0] = (double) side1 / area;
+                weights[1] = (double) side2 / area;
+                weights[2] = (double) side3 / area;
+                return true;
+            }
+            // the closest point is on one of the edges, keep the edge closest to the origin
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int skip = 0; skip < 3; skip++) {
+                int a = (skip == 0) ? 1 : 0, b = (skip == 2) ? 1 : 2;
+                double t = segment(pointX(hull1, hull2, a), pointY(hull1, hull2, a), pointX(hull1, hull2, b), pointY(hull1, hull2, b));
+                double x = pointX(hull1, hull2, a) + t * (pointX(hull1, hull2, b) - pointX(hull1, hull2, a));
+                double y = pointY(hull1, hull2, a) + t * (pointY(hull1, hull2, b) - pointY(hull1, hull2, a));
+                if (x * x + y * y < bestDistance) {
+                    bestDistance = x * x + y * y;
+                    best = skip;
+                }
+            }
+            remove(best);
+        }
+        if (size == 2) {
+            long px = pointX(hull1, hull2, 0), py = pointY(hull1, hull2, 0);
+            long qx = pointX(hull1, hull2, 1), qy = pointY(hull1, hull2, 1);
+            double t = segment(px, py, qx, qy);
+            if (t == 0) remove(1);
+            else if (t == 1) remove(0);
+            else {
+                weights[0] = 1 - t;
+                weights[1] = t;
+                return px * qy - py * qx == 0; // the origin is on the segment
+            }
+        }
+        weights[0] = 1;
+        return pointX(hull1, hull2, 0) == 0 && pointY(hull1, hull2, 0) == 0;
+    }
+
+    /**
+     * @return how far along the segment from p to q its closest point to the origin is, exactly 0 or 1 at the ends
+     */
+    private static double segment(long px, long py, long qx, long qy) {
+        long ex = qx - px, ey = qy - py;
+        long along = -(px * ex + py * ey);
+        long length = ex * ex + ey * ey;
+        if (along <= 0) return 0;
+        if (along >= length) return 1;
+        return (double) along / length;
+    }
+
+    private void remove(int k) {
+        for (int i = k; i < size - 1; i++) {
+            index1[i] = index1[i + 1];
+            index2[i] = index2[i + 1];
+        }
+        size--;
+    }
+}
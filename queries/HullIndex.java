@@ -0,0 +1,206 @@
+/*
+  Point in Convex Hull Index
+       Time Complexity: O(h) to build, O(log h) for each query
+ */
+package queries;
+
+import setup.Point;
+import setup.PointBuffer;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+public class HullIndex {
+
+    /**
+     * Answers whether points are inside a finished convex hull
+     * The hull is split into wedges (triangles) from its first vertex to every edge that doesn't touch it,
+     * a query finds its wedge with a binary search over the diagonals, then checks the one edge of that wedge
+     * Every test is an exact cross product in long, so a point on the boundary is told apart from a point inside
+     * Queries don't allocate anything
+     * The bulk queries split the points into chunks worked on in parallel, inside a chunk the wedge of the last point
+     * is checked first, so points that are sorted (by angle, or by position along a path) skip most binary searches
+     */
+
+    private static final Location[] LOCATIONS = Location.values();
+    private static final int CHUNK = 1 << 16; // the number of queries in a chunk, a multiple of 64 so the bits don't overlap
+
+    /**
+     * Where a point is compared to the convex hull
+     */
+    public enum Location { OUTSIDE, BOUNDARY, INSIDE }
+
+    private final int[] xs, ys; // the vertices in counterclockwise order without collinear vertices
+    private final int size;
+
+    /**
+     * @param convex the points of a convex hull in either order, as given by getResult,
+     *               collinear and repeated vertices are allowed and left out
+     */
+    public HullIndex(Point[] convex) {
+        StrictHull hull = new StrictHull(convex);
+        xs = hull.xs;
+        ys = hull.ys;
+        size = hull.size;
+    }
+
+    /**
+     * @return the number of vertices, without the collinear ones
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the index of the vertex, counterclockwise
+     * @return the vertex
+     */
+    public Point getVertex(int index) {
+        return new Point(xs[index], ys[index]);
+    }
+
+    /**
+     * @param pt the point to check
+     * @return true if the point is inside the convex hull or on its boundary
+     */
+    public boolean contains(Point pt) {
+        return locate(pt.getX(), pt.getY()) != Location.OUTSIDE;
+    }
+
+    /**
+     * @param pt the point to check
+     * @return where the point is compared to the convex hull
+     */
+    public Location locate(Point pt) {
+        return locate(pt.getX(), pt.getY());
+    }
+
+    /**
+     * @param x the x of the point to check
+     * @param y the y of the point to check
+     * @return where the point is compared to the convex hull
+     */
+    public Location locate(int x, int y) {
+        return LOCATIONS[locate(x, y, 0) & 3];
+    }
+
+    /**
+     * Finds where every point of the buffer is, in parallel
+     * @param queries the points to check
+     * @return the ordinal of the location of each point, 0 for outside, 1 for boundary, 2 for inside
+     */
+    public byte[] locateAll(PointBuffer queries) {
+        byte[] result = new byte[queries.size()];
+        forEachChunk(queries.size(), (start, end) -> {
+            int hint = 0;
+            for (int i = start; i < end; i++) {
+                int found = locate(queries.getX(i), queries.getY(i), hint);
+                result[i] = (byte) (found & 3);
+                if (found > 3) hint = found >>> 2;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Finds which points of the buffer are inside the convex hull or on its boundary, in parallel
+     * @param queries the points to check
+     * @return a bit set with the bit of every point that is inside or on the boundary set
+     */
+    public BitSet containsAll(PointBuffer queries) {
+        long[] words = new long[(queries.size() + 63) / 64];
+        forEachChunk(queries.size(), (start, end) -> {
+            int hint = 0;
+            for (int i = start; i < end; i++) {
+                int found = locate(queries.getX(i), queries.getY(i), hint);
+                if ((found & 3) != Location.OUTSIDE.ordinal()) words[i >>> 6] |= 1L << i;
+                if (found > 3) hint = found >>> 2;
+            }
+        });
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * How a chunk of queries is worked on
+     */
+    private interface ChunkTask {
+        void run(int start, int end);
+    }
+
+    private static void forEachChunk(int size, ChunkTask task) {
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        if (chunks > 1) range = range.parallel();
+        range.forEach(chunk -> task.run(chunk * CHUNK, (int) Math.min((long) (chunk + 1) * CHUNK, size)));
+    }
+
+    /**
+     * Locates the point, checking the wedge given before doing the binary search
+     * @param hint the wedge of the last point, 0 if there is none
+     * @return the ordinal of the location in the lowest two bits, and the wedge of the point above them, 0 if it has none
+     */
+    private int locate(int x, int y, int hint) {
+        if (size < 3) return locateSmall(x, y).ordinal();
+        long side1 = cross(0, 1, x, y);
+        long sideLast = cross(0, size - 1, x, y);
+        if (side1 < 0 || sideLast > 0) return Location.OUTSIDE.ordinal();
+        if (side1 == 0) return (onSegment(0, 1, x, y) ? Location.BOUNDARY : Location.OUTSIDE).ordinal();
+        if (sideLast == 0) return (onSegment(0, size - 1, x, y) ? Location.BOUNDARY : Location.OUTSIDE).ordinal();
+        int wedge;
+        if (hint > 0 && cross(0, hint, x, y) >= 0 && (hint + 1 == size - 1 || cross(0, hint + 1, x, y) < 0))
+            wedge = hint;
+        else
+            wedge = wedge(x, y, 1, size - 2);
+        return (wedge << 2) | locateInWedge(wedge, x, y).ordinal();
+    }
+
+    /**
+     * Finds the wedge of a point that is strictly between the first edge and the last edge, seen from the first vertex
+     * @param lo the first wedge it could be in
+     * @param hi the last wedge it could be in
+     * @return the index i of the wedge made by the first vertex, vertex i and vertex i+1
+     */
+    private int wedge(int x, int y, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (cross(0, mid, x, y) >= 0) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * @param wedge the index of the wedge the point is in
+     * @return where the point is, only the outer edge of the wedge has to be checked
+     */
+    private Location locateInWedge(int wedge, int x, int y) {
+        long side = cross(wedge, wedge + 1, x, y);
+        if (side > 0) return Location.INSIDE;
+        if (side < 0) return Location.OUTSIDE;
+        return Location.BOUNDARY;
+    }
+
+    /**
+     * A convex hull with fewer than three points is a point or a segment, so there is no inside
+     */
+    private Location locateSmall(int x, int y) {
+        if (size == 0) return Location.OUTSIDE;
+        if (size == 1) return (xs[0] == x && ys[0] == y) ? Location.BOUNDARY : Location.OUTSIDE;
+        return (cross(0, 1, x, y) == 0 && onSegment(0, 1, x, y)) ? Location.BOUNDARY : Location.OUTSIDE;
+    }
+
+    /**
+     * @return positive if vertex a, vertex b and the point make a left turn, negative if a right turn, 0 if collinear
+     */
+    private long cross(int a, int b, int x, int y) {
+        return Point.orientation(xs[a], ys[a], xs[b], ys[b], x, y);
+    }
+
+    /**
+     * @return whether the point, which is on the line through vertex a and vertex b, is between them
+     */
+    private boolean onSegment(int a, int b, int x, int y) {
+        return Math.min(xs[a], xs[b]) <= x && x <= Math.max(xs[a], xs[b])
+                && Math.min(ys[a], ys[b]) <= y && y <= Math.max(ys[a], ys[b]);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+  Convex Hull Intersection
+       Time Complexity: O(log h1 * log h2) to test, O(h1 + h2) for the overlap
+ */
+package queries;
+
+import static queries.HullQueries.angleBelow;
+
+/**
+ * Tells whether two convex hulls intersect, and finds a line between them or the polygon where they overlap
+ * Two hulls intersect when the origin is inside the Minkowski difference of the first hull and the second,
+ *      the hull of every vertex of the first minus every vertex of the second
+ * The difference is never built, its vertices are the sums of the vertices of the first hull and of the second turned around,
+ * taken in the order of the angles of their edges, so a vertex is found by counting the edges of one hull below an edge of the other
+ * The origin is found with the same wedge search as HullIndex over the vertices of the difference,
+ *      a binary search over the edges of the first hull, then one over the edges of the second within that step
+ * When the origin is outside, the edge of the difference it is outside of is parallel to an edge of one of the hulls,
+ *      its normal is the direction the hulls are apart in
+ * The overlap is the intersection of the inner sides of the edges of both hulls, which are already sorted by angle
+ */
+public final class HullIntersection {
+    private static final double EPSILON = 1e-7; // how far a point can be outside an edge and still count as on it
+
+    private HullIntersection() {}
+
+    /**
+     * @param hull1 the first convex hull
+     * @param hull2 the second convex hull
+     * @return true if the hulls share a point, touching counts
+     */
+    public static boolean intersects(HullQueries hull1, HullQueries hull2) {
+        if (hull1.size == 0 || hull2.size == 0) return false;
+        return separation(hull1, hull2) == null;
+    }
+
+    /**
+     * Finds a line with the first hull strictly on one side and the second hull strictly on the other
+     * @param hull1 the first convex hull
+     * @param hull2 the second convex hull
+     * @return the line a * x + b * y = c as a, b, c, where the first hull has a * x + b * y < c and the second has more than c,
+     *         or an empty array if the hulls intersect or one of them is empty
+     */
+    public static double[] separatingLine(HullQueries hull1, HullQueries hull2) {
+        if (hull1.size == 0 || hull2.size == 0) return new double[0];
+        long[] normal = separation(hull1, hull2);
+        if (normal == null) return new double[0];
+        long max1 = dot(normal, hull1, hull1.extreme(normal[0], normal[1]));
+        long min2 = dot(normal, hull2, hull2.extreme(-normal[0], -normal[1]));
+        return new double[] {normal[0], normal[1], max1 / 2.0 + min2 / 2.0};
+    }
+
+    /**
+     * Finds the polygon where the two hulls overlap
+     * @param hull1 the first convex hull
+     * @param hull2 the second convex hull
+     * @return the vertices of the overlap in counterclockwise order, x0, y0, x1, y1, ...,
+     *         or an empty array if the overlap has no area
+     */
+    public static double[] intersection(HullQueries hull1, HullQueries hull2) {
+        if (hull1.size < 3 || hull2.size < 3) return new double[0];
+        // merge the edges of both hulls by angle, each edge keeps the inner side on its left
+        int count = hull1.size + hull2.size;
+        long[] px = new long[count], py = new long[count], dx = new long[count], dy = new long[count];
+        int i = 0, j = 0;
+        for (int k = 0; k < count; k++) {
+            HullQueries hull;
+            int index;
+            if (j == hull2.size || (i < hull1.size && !angleBelow(edgeX(hull2, j), edgeY(hull2, j), edgeX(hull1, i), edgeY(hull1, i)))) {
+                hull = hull1;
+                index = i++;
+            }
+            else {
+                hull = hull2;
+                index = j++;
+            }
+            px[k] = hull.xs[index];
+            py[k] = hull.ys[index];
+            dx[k] = edgeX(hull, index);
+            dy[k] = edgeY(hull, index);
+        }
+
+        // keep the edges that still bound the overlap in a deque, from front to back - 1
+        int[] deque = new int[count];
+        int front = 0, back = 0;
+        for (int k = 0; k < count; k++) {
+            while (back - front > 1 && outside(k, deque[back - 2], deque[back - 1], px, py, dx, dy)) back--;
+            while (back - front > 1 && outside(k, deque[front], deque[front + 1], px, py, dx, dy)) front++;
+            if (back > front) {
+                int last = deque[back - 1];
+                if (dx[k] * dy[last] - dy[k] * dx[last] == 0) {
+                    // edges facing each other with nothing left between them
+                    if (dx[k] * dx[last] + dy[k] * dy[last] < 0) return new double[0];
+                    // of two edges in the same direction, the inner one is kept
+                    if (dx[k] * (py[last] - py[k]) - dy[k] * (px[last] - px[k]) >= 0) continue;
+                    back--;
+                }
+            }
+            deque[back++] = k;
+        }
+        while (back - front > 2 && outside(deque[front], deque[back - 2], deque[back - 1], px, py, dx, dy)) back--;
+        while (back - front > 2 && outside(deque[back - 1], deque[front], deque[front + 1], px, py, dx, dy)) front++;
+        if (back - front < 3) return new double[0];
+
+        double[] polygon = new double[2 * (back - front)];
+        int size = 0;
+        for (int k = front; k < back; k++) {
+            int next = (k + 1 < back) ? k + 1 : front;
+            double[] pt = meet(deque[k], deque[next], px, py, dx, dy);
+            if (size > 0 && near(pt[0], pt[1], polygon[2 * size - 2], polygon[2 * size - 1])) continue;
+            polygon[2 * size] = pt[0];
+            polygon[2 * size + 1] = pt[1];
+            size++;
+        }
+        while (size > 1 && near(polygon[0], polygon[1], polygon[2 * size - 2], polygon[2 * size - 1])) size--;
+        // a point or a segment when the hulls only touch
+        if (size < 3) return new double[0];
+        double[] result = new double[2 * size];
+        System.arraycopy(polygon, 0, result, 0, 2 * size);
+        return result;
+    }
+
+    /**
+     * Finds the direction the hulls are apart in
+     * @return the normal of an edge of the difference the origin is strictly outside of, or null if the hulls intersect
+     */
+    private static long[] separation(HullQueries hull1, HullQueries hull2) {
+        Difference difference = new Difference(hull1, hull2);
+        int edges1 = difference.edges1, edges2 = difference.edges2;
+        long x0 = difference.x(0, 0), y0 = difference.y(0, 0);
+        if (edges1 + edges2 == 0) {
+            // two points
+            if (x0 == 0 && y0 == 0) return null;
+            return new long[] {-x0, -y0};
+        }
+
+        // the vertices after the first edge and before the last edge of the difference
+        boolean firstEdge1 = edges1 > 0 && (edges2 == 0 || !difference.below2(0, 0));
+        boolean lastEdge1 = edges1 > 0 && (edges2 == 0 || difference.below2(edges2 - 1, edges1 - 1));
+        int i1 = firstEdge1 ? 1 : 0, j1 = firstEdge1 ? 0 : 1;
+        int iLast = lastEdge1 ? edges1 - 1 : edges1, jLast = lastEdge1 ? edges2 : edges2 - 1;
+        long firstX = difference.x(i1, j1) - x0, firstY = difference.y(i1, j1) - y0;
+        long lastX = difference.x(iLast, jLast) - x0, lastY = difference.y(iLast, jLast) - y0;
+
+        if (firstX * lastY - firstY * lastX == 0) {
+            // the difference is a segment, the origin is apart from it across the segment or past one of its ends
+            long[][] normals = {{-firstY, firstX}, {firstY, -firstX}, {firstX, firstY}, {-firstX, -firstY}};
+            for (long[] normal: normals)
+                if (separates(normal, hull1, hull2)) return normal;
+            return null;
+        }
+        // outside the angle at the first vertex
+        if (firstX * -y0 - firstY * -x0 < 0) return new long[] {firstY, -firstX};
+        if (lastX * -y0 - lastY * -x0 > 0) return new long[] {-lastY, lastX};
+
+        // the last step of the first hull whose first vertex is not past the origin
+        int lo = 0, hi = edges1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            int j = difference.rank(mid - 1);
+            if (!(mid == edges1 && j == edges2) && difference.before(mid, j)) lo = mid;
+            else hi = mid - 1;
+        }
+        int i = lo;
+        int jEnd = (i < edges1) ? difference.rank(i) : edges2 - 1;
+        // then the last vertex of that step not past the origin
+        lo = (i == 0) ? 0 : difference.rank(i - 1);
+        hi = jEnd;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (difference.before(i, mid)) lo = mid;
+            else hi = mid - 1;
+        }
+        int j = lo;
+        int iNext = (i < edges1 && j == jEnd) ? i + 1 : i;
+        int jNext = (iNext == i) ? j + 1 : j;
+
+        // the origin is inside unless it is outside the edge across the wedge
+        long x = difference.x(i, j), y = difference.y(i, j);
+        long edgeX = difference.x(iNext, jNext) - x, edgeY = difference.y(iNext, jNext) - y;
+        long side = edgeX * -y - edgeY * -x;
+        if (side > 0) return null;
+        if (side < 0) return new long[] {edgeY, -edgeX};
+        // on the line of the edge, which is only past its ends when the edge comes back to the first vertex
+        if (-x * edgeX + -y * edgeY >= 0) return null;
+        // the origin is behind the start of the edge, the edges before it on the same line come from parallel edges of the hulls,
+        // it is on one of them or outside the first edge before them that turns
+        while (true) {
+            int iPrev = (j > ((i == 0) ? 0 : difference.rank(i - 1))) ? i : i - 1;
+            int jPrev = (iPrev == i) ? j - 1 : j;
+            long prevX = difference.x(iPrev, jPrev), prevY = difference.y(iPrev, jPrev);
+            edgeX = x - prevX;
+            edgeY = y - prevY;
+            if (edgeX * -prevY - edgeY * -prevX != 0) return new long[] {edgeY, -edgeX};
+            if (-prevX * edgeX + -prevY * edgeY >= 0) return null;
+            i = iPrev;
+            j = jPrev;
+            x = prevX;
+            y = prevY;
+        }
+    }
+
+    /**
+     * @return whether the whole first hull is strictly below the whole second hull in the direction
+     */
+    private static boolean separates(long[] normal, HullQueries hull1, HullQueries hull2) {
+        return dot(normal, hull1, hull1.extreme(normal[0], normal[1])) < dot(normal, hull2, hull2.extreme(-normal[0], -normal[1]));
+    }
+
+    private static long dot(long[] normal, HullQueries hull, int index) {
+        return normal[0] * hull.xs[index] + normal[1] * hull.ys[index];
+    }
+
+    private static long edgeX(HullQueries hull, int index) {
+        return (long) hull.xs[(index + 1) % hull.size] - hull.xs[index];
+    }
+
+    private static long edgeY(HullQueries hull, int index) {
+        return (long) hull.ys[(index + 1) % hull.size] - hull.ys[index];
+    }
+
+    /**
+     * @return whether the point where edges m and n meet is outside edge k
+     */
+    private static boolean outside(int k, int m, int n, long[] px, long[] py, long[] dx, long[] dy) {
+        double[] pt = meet(m, n, px, py, dx, dy);
+        double side = dx[k] * (pt[1] - py[k]) - dy[k] * (pt[0] - px[k]);
+        return side < -EPSILON * Math.hypot(dx[k], dy[k]);
+    }
+
+    /**
+     * @return the point where the lines of edges m and n meet
+     */
+    private static double[] meet(int m, int n, long[] px, long[] py, long[] dx, long[] dy) {
+        double t = (double) ((px[n] - px[m]) * dy[n] - (py[n] - py[m]) * dx[n]) / (dx[m] * dy[n] - dy[m] * dx[n]);
+        return new double[] {px[m] + t * dx[m], py[m] + t * dy[m]};
+    }
+
+    private static boolean near(double x1, double y1, double x2, double y2) {
+        return Math.abs(x1 - x2) <= EPSILON && Math.abs(y1 - y2) <= EPSILON;
+    }
+
+    /**
+     * The vertices of the Minkowski difference of two hulls, found without building it
+     * Vertex (i, j) is vertex i of the first hull minus vertex j of the second counted from its highest vertex,
+     * which is vertex j of the second hull turned around counted from its lowest vertex
+     * The edges of both are taken in the order of their angles, an edge of the first hull before an edge of the second with the same angle
+     */
+    private static final class Difference {
+        private final HullQueries hull1, hull2;
+        private final int top; // the highest vertex of the second hull, the rightmost of the highest
+        private final int edges1, edges2; // a point has no edges, a segment has two
+
+        Difference(HullQueries hull1, HullQueries hull2) {
+            this.hull1 = hull1;
+            this.hull2 = hull2;
+            edges1 = (hull1.size >= 2) ? hull1.size : 0;
+            edges2 = (hull2.size >= 2) ? hull2.size : 0;
+            if (hull2.size >= 3) top = hull2.extreme(0L, 1L);
+            else {
+                int highest = 0;
+                for (int k = 1; k < hull2.size; k++)
+                    if (hull2.ys[k] > hull2.ys[highest] || (hull2.ys[k] == hull2.ys[highest] && hull2.xs[k] > hull2.xs[highest]))
+                        highest = k;
+                top = highest;
+            }
+        }
+
+        long x(int i, int j) {
+            return (long) hull1.xs[i % hull1.size] - hull2.xs[(top + j) % hull2.size];
+        }
+
+        long y(int i, int j) {
+            return (long) hull1.ys[i % hull1.size] - hull2.ys[(top + j) % hull2.size];
+        }
+
+        /**
+         * @return whether edge j of the second hull turned around has a lower angle than edge i of the first hull
+         */
+        boolean below2(int j, int i) {
+            int from = (top + j) % hull2.size, to = (top + j + 1) % hull2.size;
+            return angleBelow((long) hull2.xs[from] - hull2.xs[to], (long) hull2.ys[from] - hull2.ys[to], edgeX(hull1, i), edgeY(hull1, i));
+        }
+
+        /**
+         * @return the number of edges of the second hull turned around that come before edge i of the first hull
+         */
+        int rank(int i) {
+            if (i < 0) return 0;
+            int lo = 0, hi = edges2;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (below2(mid, i)) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /**
+         * @return whether the origin is on the left of the diagonal from the first vertex to vertex (i, j), or on it
+         */
+        boolean before(int i, int j) {
+            long x0 = x(0, 0), y0 = y(0, 0);
+            long vx = x(i, j) - x0, vy = y(i, j) - y0;
+            return vx * -y0 - vy * -x0 >= 0;
+        }
+    }
+}
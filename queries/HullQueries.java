@@ -0,0 +1,286 @@
+/*
+  Convex Hull Queries
+       Time Complexity: O(h) to build, O(log h) for each query
+ */
+package queries;
+
+import setup.Point;
+
+public class HullQueries {
+
+    /**
+     * Answers tangent, support and line queries on a finished convex hull with binary searches
+     * The vertices are kept counterclockwise from the lowest one (the leftmost of the lowest), so the angles of the edges
+     * only go up from 0 to 2 pi, the extreme vertex in a direction is where the angles pass the direction turned by 90 degrees
+     * The edges an outside point sees form one run, the tangents are its two ends
+     *      the first vertex splits the hull into pieces where the edges go from seen to unseen only once,
+     *      a binary search on each piece finds an end of the run
+     * A line crosses the chain that goes up toward it once and the chain that comes back down once
+     * Every test is an exact cross or dot product in long
+     */
+
+    // the vertices in counterclockwise order from the lowest one, without collinear vertices, read by HullIntersection
+    final int[] xs, ys;
+    final int size;
+
+    /**
+     * @param convex the points of a convex hull in either order, as given by getResult,
+     *               collinear vertices are left out
+     */
+    public HullQueries(Point[] convex) {
+        StrictHull hull = new StrictHull(convex);
+        size = hull.size;
+        int lowest = 0;
+        for (int i = 1; i < size; i++)
+            if (hull.ys[i] < hull.ys[lowest] || (hull.ys[i] == hull.ys[lowest] && hull.xs[i] < hull.xs[lowest]))
+                lowest = i;
+        xs = new int[size];
+        ys = new int[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = hull.xs[(lowest + i) % size];
+            ys[i] = hull.ys[(lowest + i) % size];
+        }
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the index of the vertex, counterclockwise from the lowest vertex
+     * @return the vertex
+     */
+    public Point getVertex(int index) {
+        return new Point(xs[index], ys[index]);
+    }
+
+    /**
+     * Finds the vertex that is the farthest in a direction, the support point of the hull
+     * When an edge is perpendicular to the direction, the first of its two vertices counterclockwise is given
+     * @param dx the x of the direction
+     * @param dy the y of the direction
+     * @return the index of the vertex, or -1 if the hull is empty
+     */
+    public int extreme(int dx, int dy) {
+        return extreme((long) dx, dy);
+    }
+
+    int extreme(long dx, long dy) {
+        if (dx == 0 && dy == 0) throw new IllegalArgumentException("The direction has no length");
+        if (size < 3) {
+            int best = (size == 0) ? -1 : 0;
+            for (int i = 1; i < size; i++)
+                if (dx * xs[i] + dy * ys[i] > dx * xs[best] + dy * ys[best]) best = i;
+            return best;
+        }
+        // count the edges whose angle is below the direction turned counterclockwise by 90 degrees
+        long tx = -dy, ty = dx;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int next = (mid + 1) % size;
+            if (angleBelow((long) xs[next] - xs[mid], (long) ys[next] - ys[mid], tx, ty)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo % size;
+    }
+
+    /**
+     * Finds the left tangent from a point outside the hull, the hull is on the right of the line from the point to it
+     * When the point is on the line of an edge, the nearer vertex of the edge is given
+     * @param pt the point outside the hull
+     * @return the index of the vertex, or -1 if the point is inside the hull or on its boundary
+     */
+    public int leftTangent(Point pt) {
+        return (int) (tangents(pt.getX(), pt.getY()) >> 32);
+    }
+
+    /**
+     * Finds the right tangent from a point outside the hull, the hull is on the left of the line from the point to it
+     * When the point is on the line of an edge, the nearer vertex of the edge is given
+     * @param pt the point outside the hull
+     * @return the index of the vertex, or -1 if the point is inside the hull or on its boundary
+     */
+    public int rightTangent(Point pt) {
+        return (int) tangents(pt.getX(), pt.getY());
+    }
+
+    /**
+     * Finds the ends of the run of edges that the point sees
+     * @return the first vertex of the run in the high 32 bits and the last vertex in the low 32 bits, both -1 if there is no run
+     */
+    private long tangents(int x, int y) {
+        if (size < 3) return smallTangents(x, y);
+        boolean firstSeen = sees(x, y, 0);
+        boolean lastSeen = sees(x, y, size - 1);
+        int first, last;
+        if (firstSeen && !lastSeen) {
+            // the run starts at the first vertex
+            first = 0;
+            last = lastSeen(x, y, 0, size - 1) + 1;
+        }
+        else if (!firstSeen && lastSeen) {
+            // the run ends at the first vertex
+            first = firstSeen(x, y, 0, size - 1);
+            last = 0;
+        }
+        else if (firstSeen) {
+            // the point is behind the first vertex, the line from it through the first vertex leaves at an edge it doesn't see
+            int unseen = wedge((long) xs[0] - x, (long) ys[0] - y);
+            first = firstSeen(x, y, unseen, size - 1);
+            last = lastSeen(x, y, 0, unseen) + 1;
+        }
+        else {
+            // the point is in front of the first vertex, the line to it leaves at an edge it sees unless it is inside
+            int seen = wedge((long) x - xs[0], (long) y - ys[0]);
+            if (!sees(x, y, seen)) return -1L;
+            first = firstSeen(x, y, 0, seen);
+            last = lastSeen(x, y, seen, size - 1) + 1;
+        }
+        return ((long) first << 32) | (last % size);
+    }
+
+    /**
+     * A point or a segment has no edges to search
+     */
+    private long smallTangents(int x, int y) {
+        if (size == 0) return -1L;
+        if (size == 1) return (xs[0] == x && ys[0] == y) ? -1L : 0L;
+        long side = Point.orientation(xs[0], ys[0], xs[1], ys[1], x, y);
+        if (side < 0) return 1L; // the point sees the edge from the first vertex to the second
+        if (side > 0) return 1L << 32;
+        // on the line, the nearer end is both tangents unless the point is on the segment
+        long along0 = ((long) xs[1] - xs[0]) * ((long) x - xs[0]) + ((long) ys[1] - ys[0]) * ((long) y - ys[0]);
+        long along1 = ((long) xs[0] - xs[1]) * ((long) x - xs[1]) + ((long) ys[0] - ys[1]) * ((long) y - ys[1]);
+        if (along0 < 0) return 0L;
+        if (along1 < 0) return (1L << 32) | 1L;
+        return -1L;
+    }
+
+    /**
+     * @return whether the point is strictly on the outer side of the edge that starts at the vertex
+     */
+    private boolean sees(int x, int y, int edge) {
+        int next = (edge + 1) % size;
+        return Point.orientation(xs[edge], ys[edge], xs[next], ys[next], x, y) < 0;
+    }
+
+    /**
+     * The edges from lo to hi go from unseen to seen once, and hi is seen
+     * @return the first edge that is seen
+     */
+    private int firstSeen(int x, int y, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sees(x, y, mid)) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /**
+     * The edges from lo to hi go from seen to unseen once, and lo is seen
+     * @return the last edge that is seen
+     */
+    private int lastSeen(int x, int y, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (sees(x, y, mid)) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the triangle from the first vertex that a direction inside the angle at the first vertex points into
+     * @return the edge of the triangle across from the first vertex
+     */
+    private int wedge(long dx, long dy) {
+        int lo = 1, hi = size - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (((long) xs[mid] - xs[0]) * dy - ((long) ys[mid] - ys[0]) * dx >= 0) lo = mid;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Finds where a line crosses the hull
+     * @param pt1 a point on the line
+     * @param pt2 another point on the line
+     * @return the two ends of the part of the line inside the hull in the order of the line, x1, y1, x2, y2,
+     *         which are the same point if the line only touches the hull, or an empty array if it misses the hull
+     */
+    public double[] intersect(Point pt1, Point pt2) {
+        long lx = (long) pt2.getX() - pt1.getX();
+        long ly = (long) pt2.getY() - pt1.getY();
+        if (lx == 0 && ly == 0) throw new IllegalArgumentException("The two points are the same");
+        if (size == 0) return new double[0];
+        // how far each vertex is to the left of the line, times the length of the line
+        int top = extreme(-ly, lx);
+        int bottom = extreme(ly, -lx);
+        if (side(pt1, lx, ly, top) < 0 || side(pt1, lx, ly, bottom) > 0) return new double[0];
+        if (size == 1) return new double[] {xs[0], ys[0], xs[0], ys[0]};
+        if (top == bottom) {
+            // a segment along the line
+            boolean inOrder = lx * ((long) xs[1] - xs[0]) + ly * ((long) ys[1] - ys[0]) >= 0;
+            int from = inOrder ? 0 : 1;
+            return new double[] {xs[from], ys[from], xs[1 - from], ys[1 - from]};
+        }
+
+        // going up from the bottom, the last vertex not above the line
+        int lo = 0, hi = (top - bottom + size) % size;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (side(pt1, lx, ly, (bottom + mid) % size) <= 0) lo = mid;
+            else hi = mid - 1;
+        }
+        double[] enter = crossing(pt1, lx, ly, (bottom + lo) % size);
+        // going down from the top, the last vertex not below the line
+        lo = 0;
+        hi = (bottom - top + size) % size;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (side(pt1, lx, ly, (top + mid) % size) >= 0) lo = mid;
+            else hi = mid - 1;
+        }
+        double[] exit = crossing(pt1, lx, ly, (top + lo) % size);
+
+        boolean inOrder = lx * (exit[0] - enter[0]) + ly * (exit[1] - enter[1]) >= 0;
+        return inOrder ? new double[] {enter[0], enter[1], exit[0], exit[1]}
+                : new double[] {exit[0], exit[1], enter[0], enter[1]};
+    }
+
+    /**
+     * @return how far the vertex is to the left of the line, times the length of the line
+     */
+    private long side(Point pt, long lx, long ly, int index) {
+        return lx * ((long) ys[index] - pt.getY()) - ly * ((long) xs[index] - pt.getX());
+    }
+
+    /**
+     * @return the point where the edge that starts at the vertex crosses the line, or the vertex if it is on the line
+     */
+    private double[] crossing(Point pt, long lx, long ly, int index) {
+        long side1 = side(pt, lx, ly, index);
+        if (side1 == 0) return new double[] {xs[index], ys[index]};
+        int next = (index + 1) % size;
+        long side2 = side(pt, lx, ly, next);
+        double t = (double) side1 / (side1 - side2);
+        return new double[] {xs[index] + t * ((long) xs[next] - xs[index]), ys[index] + t * ((long) ys[next] - ys[index])};
+    }
+
+    /**
+     * @return whether the angle of the first vector is below the angle of the second, both measured from 0 to 2 pi
+     */
+    static boolean angleBelow(long ax, long ay, long bx, long by) {
+        boolean upperA = ay > 0 || (ay == 0 && ax > 0);
+        boolean upperB = by > 0 || (by == 0 && bx > 0);
+        if (upperA != upperB) return upperA;
+        return ax * by - ay * bx > 0;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+  Rotating Calipers
+       Time Complexity: O(h)
+ */
+package queries;
+
+import setup.Point;
+
+public class RotatingCalipers {
+
+    /**
+     * Measures a finished convex hull in one sweep over its edges
+     * For every edge three calipers are kept: the vertex farthest from the edge, and the vertices farthest
+     * along the edge in both directions, each of them only moves forward so the sweep takes O(h)
+     *      The diameter is the largest distance between a vertex and the farthest vertex from an edge next to it
+     *      The width is the smallest distance from an edge to its farthest vertex
+     *      The minimum area and minimum perimeter rectangles are flush with one of the edges,
+     *          so only the rectangle of each edge has to be checked
+     * The calipers are moved with exact long cross and dot products, only the lengths are computed in double
+     */
+
+    /**
+     * A rectangle that holds the whole convex hull
+     */
+    public static final class Rectangle {
+        private final double[] corners;
+        private final double length, height;
+        private final int edge;
+
+        private Rectangle(double[] corners, double length, double height, int edge) {
+            this.corners = corners;
+            this.length = length;
+            this.height = height;
+            this.edge = edge;
+        }
+
+        /**
+         * @return the corners in counterclockwise order, x0, y0, x1, y1, ...
+         */
+        public double[] getCorners() { return corners.clone(); }
+
+        /**
+         * @return the side that is along the edge
+         */
+        public double getLength() { return length; }
+
+        /**
+         * @return the side that goes away from the edge
+         */
+        public double getHeight() { return height; }
+
+        public double getArea() { return length * height; }
+
+        public double getPerimeter() { return 2 * (length + height); }
+
+        /**
+         * @return the index of the vertex the edge the rectangle is flush with starts from, counterclockwise
+         */
+        public int getEdge() { return edge; }
+    }
+
+    private final int[] xs, ys; // the vertices in counterclockwise order without collinear vertices
+    private final int size;
+    private long diameterSquared;
+    private int diameterFrom, diameterTo;
+    private double width;
+    private int widthEdge, widthVertex;
+    private Rectangle minArea, minPerimeter;
+
+    /**
+     * Measures the convex hull
+     * @param convex the points of a convex hull in either order, as given by getResult
+     */
+    public RotatingCalipers(Point[] convex) {
+        StrictHull hull = new StrictHull(convex);
+        xs = hull.xs;
+        ys = hull.ys;
+        size = hull.size;
+
+        if (size >= 3) sweep();
+        else measureSmall();
+    }
+
+    /**
+     * A point has nothing to measure, a segment has no width
+     */
+    private void measureSmall() {
+        width = 0;
+        if (size < 2) {
+            double[] corners = new double[8];
+            for (int i = 0; i < 4; i++) {
+                corners[2 * i] = (size == 0) ? 0 : xs[0];
+                corners[2 * i + 1] = (size == 0) ? 0 : ys[0];
+            }
+            minArea = minPerimeter = new Rectangle(corners, 0, 0, 0);
+            return;
+        }
+        diameterSquared = distanceSquared(0, 1);
+        diameterTo = 1;
+        double[] corners = {xs[0], ys[0], xs[1], ys[1], xs[1], ys[1], xs[0], ys[0]};
+        minArea = minPerimeter = new Rectangle(corners, Math.sqrt(diameterSquared), 0, 0);
+    }
+
+    private void sweep() {
+        width = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        double bestPerimeter = Double.POSITIVE_INFINITY;
+        int far = 1, right = 1, left = 0;
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            long ex = (long) xs[next] - xs[i];
+            long ey = (long) ys[next] - ys[i];
+
+            // move the calipers forward, each one only turns counterclockwise
+            while (dot(ex, ey, right, (right + 1) % size) > 0)
+                right = (right + 1) % size;
+            if (i == 0) far = right;
+            while (cross(ex, ey, far, (far + 1) % size) > 0)
+                far = (far + 1) % size;
+            if (i == 0) left = far;
+            while (dot(ex, ey, left, (left + 1) % size) < 0)
+                left = (left + 1) % size;
+
+            // the diameter is between one end of the edge and the vertex farthest from it
+            updateDiameter(i, far);
+            updateDiameter(next, far);
+
+            double edgeLength = Math.sqrt(ex * ex + ey * ey);
+            long heightTimesLength = ex * ((long) ys[far] - ys[i]) - ey * ((long) xs[far] - xs[i]);
+            double height = heightTimesLength / edgeLength;
+            if (height < width) {
+                width = height;
+                widthEdge = i;
+                widthVertex = far;
+            }
+
+            long rightAlong = ex * ((long) xs[right] - xs[i]) + ey * ((long) ys[right] - ys[i]);
+            long leftAlong = ex * ((long) xs[left] - xs[i]) + ey * ((long) ys[left] - ys[i]);
+            double length = (rightAlong - leftAlong) / edgeLength;
+            if (length * height < bestArea) {
+                bestArea = length * height;
+                minArea = rectangle(i, ex, ey, leftAlong, rightAlong, heightTimesLength, length, height);
+            }
+            if (length + height < bestPerimeter) {
+                bestPerimeter = length + height;
+                minPerimeter = rectangle(i, ex, ey, leftAlong, rightAlong, heightTimesLength, length, height);
+            }
+        }
+    }
+
+    /**
+     * Builds the rectangle flush with the edge
+     * @param leftAlong how far along the edge the leftmost caliper is, times the length of the edge
+     * @param rightAlong how far along the edge the rightmost caliper is, times the length of the edge
+     * @param heightTimesLength the height of the rectangle, times the length of the edge
+     */
+    private Rectangle rectangle(int edge, long ex, long ey, long leftAlong, long rightAlong, long heightTimesLength,
+                                double length, double height) {
+        double lengthSquared = (double) ex * ex + (double) ey * ey;
+        double ux = ex / lengthSquared, uy = ey / lengthSquared; // the edge scaled so the products above become distances
+        double x0 = xs[edge] + ux * leftAlong, y0 = ys[edge] + uy * leftAlong;
+        double x1 = xs[edge] + ux * rightAlong, y1 = ys[edge] + uy * rightAlong;
+        double nx = -ey / lengthSquared * heightTimesLength, ny = ex / lengthSquared * heightTimesLength;
+        double[] corners = {x0, y0, x1, y1, x1 + nx, y1 + ny, x0 + nx, y0 + ny};
+        return new Rectangle(corners, length, height, edge);
+    }
+
+    private void updateDiameter(int from, int to) {
+        long distance = distanceSquared(from, to);
+        if (distance > diameterSquared) {
+            diameterSquared = distance;
+            diameterFrom = from;
+            diameterTo = to;
+        }
+    }
+
+    private long distanceSquared(int a, int b) {
+        long dx = (long) xs[b] - xs[a];
+        long dy = (long) ys[b] - ys[a];
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return the cross product of the edge and the step from vertex a to vertex b, positive if the step moves away from the edge
+     */
+    private long cross(long ex, long ey, int a, int b) {
+        return Point.orientation(0, 0, ex, ey, (long) xs[b] - xs[a], (long) ys[b] - ys[a]);
+    }
+
+    /**
+     * @return the dot product of the edge and the step from vertex a to vertex b, positive if the step moves along the edge
+     */
+    private long dot(long ex, long ey, int a, int b) {
+        return ex * ((long) xs[b] - xs[a]) + ey * ((long) ys[b] - ys[a]);
+    }
+
+    /**
+     * @return the largest distance between two points of the convex hull
+     */
+    public double getDiameter() { return Math.sqrt(diameterSquared); }
+
+    /**
+     * @return the square of the diameter, exact
+     */
+    public long getDiameterSquared() { return diameterSquared; }
+
+    /**
+     * @return the two vertices that are the farthest apart
+     */
+    public Point[] getDiameterPoints() {
+        if (size == 0) return new Point[0];
+        return new Point[] {new Point(xs[diameterFrom], ys[diameterFrom]), new Point(xs[diameterTo], ys[diameterTo])};
+    }
+
+    /**
+     * @return the smallest distance between two parallel lines that hold the convex hull between them
+     */
+    public double getWidth() { return width; }
+
+    /**
+     * @return the edge and the vertex the width is measured between, the edge as its two vertices
+     */
+    public Point[] getWidthPoints() {
+        if (size < 3) return new Point[0];
+        int next = (widthEdge + 1) % size;
+        return new Point[] {new Point(xs[widthEdge], ys[widthEdge]), new Point(xs[next], ys[next]),
+                new Point(xs[widthVertex], ys[widthVertex])};
+    }
+
+    /**
+     * @return the rectangle with the smallest area that holds the convex hull
+     */
+    public Rectangle getMinAreaRectangle() { return minArea; }
+
+    /**
+     * @return the rectangle with the smallest perimeter that holds the convex hull
+     */
+    public Rectangle getMinPerimeterRectangle() { return minPerimeter; }
+}
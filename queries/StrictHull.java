@@ -0,0 +1,64 @@
+package queries;
+
+import setup.Point;
+
+/**
+ * The vertices of a convex hull in counterclockwise order, without repeated or collinear vertices
+ * The queries walk the edges with binary searches and calipers, which need every turn to be strict
+ */
+final class StrictHull {
+    final int[] xs, ys;
+    final int size;
+
+    /**
+     * @param convex the points of a convex hull in either order, as given by getResult
+     */
+    StrictHull(Point[] convex) {
+        // twice the signed area tells whether the hull is counterclockwise
+        long area = 0;
+        for (int i = 0; i < convex.length; i++) {
+            Point pt1 = convex[i];
+            Point pt2 = convex[(i + 1) % convex.length];
+            area += (long) pt1.getX() * pt2.getY() - (long) pt2.getX() * pt1.getY();
+        }
+        xs = new int[convex.length];
+        ys = new int[convex.length];
+        int count = 0;
+        for (int i = 0; i < convex.length; i++) {
+            Point pt = (area >= 0) ? convex[i] : convex[convex.length - 1 - i];
+            if (count > 0 && xs[count - 1] == pt.getX() && ys[count - 1] == pt.getY()) continue;
+            xs[count] = pt.getX();
+            ys[count] = pt.getY();
+            count++;
+        }
+        if (count > 1 && xs[0] == xs[count - 1] && ys[0] == ys[count - 1]) count--;
+        if (count >= 3) {
+            // the two ends of a hull that is flat, found before the collinear vertices are left out
+            int low = 0, high = 0;
+            for (int i = 1; i < count; i++) {
+                if (xs[i] < xs[low] || xs[i] == xs[low] && ys[i] < ys[low]) low = i;
+                if (xs[i] > xs[high] || xs[i] == xs[high] && ys[i] > ys[high]) high = i;
+            }
+            int lowX = xs[low], lowY = ys[low], highX = xs[high], highY = ys[high];
+            // leave out the vertices in the middle of an edge
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int prev = (kept == 0) ? count - 1 : kept - 1;
+                int next = (i + 1) % count;
+                if (Point.orientation(xs[prev], ys[prev], xs[i], ys[i], xs[next], ys[next]) == 0) continue;
+                xs[kept] = xs[i];
+                ys[kept] = ys[i];
+                kept++;
+            }
+            count = kept;
+            if (count < 3) { // every vertex was on one line, only its ends are left
+                xs[0] = lowX;
+                ys[0] = lowY;
+                xs[1] = highX;
+                ys[1] = highY;
+                count = 2;
+            }
+        }
+        size = count;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+  Approximate Convex Hull
+       Time Complexity: O(n k) for the first pass, k = O(1 / sqrt(e)) is the number of directions,
+                        most points are thrown away in O(1) so it is close to O(n) in practice
+ */
+package service;
+
+import queries.RotatingCalipers;
+import setup.Point;
+import setup.PointBuffer;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A convex hull that is only accurate to a relative error, for inputs too big to find the exact hull of
+ * The points that are extreme in k evenly spread directions are kept, and the result is the convex hull of those points
+ * Only O(k) is kept for each chunk of points, so memory doesn't grow with the input
+ *
+ * Every point lies inside the k lines that touch the convex hull in each direction, so a point missed by the result is
+ * in one of the caps between two neighboring directions and the edge joining their extreme points
+ * The error bound is the largest distance from the tip of a cap to its edge, which holds for every point
+ *      Caps are usually small, O(D / k^2) for a diameter D, so k = 2 pi / sqrt(e) directions is enough in one pass
+ *      A cap with a long edge is only O(D / k), those directions are halved with another pass until every cap is
+ *          at most e times the diameter of the result
+ * A point strictly inside the extremes of the 8 main directions can't be extreme in any direction, so it is
+ * thrown away after a few cross products instead of being compared in every direction
+ */
+public final class ApproximateHull {
+    private static final int CHUNK = 1 << 16; // the number of points a thread scans at a time
+    private static final int MAX_DIRECTIONS = 1 << 16; // the number of directions of the first pass for a tiny e
+    private static final double MIN_GAP = 1e-9; // the smallest angle between two directions, in radians
+
+    /**
+     * The coordinates of the input, so points and buffers are read without being copied
+     */
+    private interface Source {
+        int size();
+        int getX(int index);
+        int getY(int index);
+    }
+
+    /**
+     * The extreme point of a chunk in each direction, -1 if the chunk had no point
+     */
+    private static final class Extremes {
+        private final double[] best;
+        private final int[] index;
+
+        private Extremes(int directions) {
+            best = new double[directions];
+            index = new int[directions];
+            Arrays.fill(index, -1);
+        }
+    }
+
+    private final Point[] result;
+    private final double errorBound;
+    private final int directions;
+    private final int passes;
+
+    private ApproximateHull(Point[] result, double errorBound, int directions, int passes) {
+        this.result = result;
+        this.errorBound = errorBound;
+        this.directions = directions;
+        this.passes = passes;
+    }
+
+    /**
+     * Finds a convex hull that every point of the buffer is within e times its diameter of
+     * @param points the points to find the convex hull of
+     * @param epsilon the relative error allowed, compared to the diameter
+     * @param parallel whether the chunks of points are scanned in parallel
+     * @return the approximate convex hull
+     */
+    public static ApproximateHull of(PointBuffer points, double epsilon, boolean parallel) {
+        if (points == null) throw new IllegalArgumentException("Points can't be null");
+        return compute(new Source() {
+            public int size() { return points.size(); }
+            public int getX(int index) { return points.getX(index); }
+            public int getY(int index) { return points.getY(index); }
+        }, epsilon, parallel);
+    }
+
+    /**
+     * Finds a convex hull that every point is within e times its diameter of
+     * @param points the points to find the convex hull of
+     * @param epsilon the relative error allowed, compared to the diameter
+     * @param parallel whether the chunks of points are scanned in parallel
+     * @return the approximate convex hull
+     */
+    public static ApproximateHull of(Point[] points, double epsilon, boolean parallel) {
+        if (points == null) throw new IllegalArgumentException("Points can't be null");
+        for (Point pt : points)
+            if (pt == null) throw new IllegalArgumentException("Point can't be null");
+        return compute(new Source() {
+            public int size() { return points.length; }
+            public int getX(int index) { return points[index].getX(); }
+            public int getY(int index) { return points[index].getY(); }
+        }, epsilon, parallel);
+    }
+
+    private static ApproximateHull compute(Source source, double epsilon, boolean parallel) {
+        if (!(epsilon > 0)) throw new IllegalArgumentException("Epsilon should be positive");
+        if (source.size() == 0) return new ApproximateHull(new Point[0], 0, 0, 0);
+
+        // a multiple of 8 so the 8 main directions are in the first pass
+        int first = (int) Math.min(MAX_DIRECTIONS, Math.ceil(2 * Math.PI / Math.sqrt(epsilon)));
+        first = Math.max(8, (first + 7) / 8 * 8);
+        double[] angles = new double[first];
+        for (int i = 0; i < first; i++)
+            angles[i] = 2 * Math.PI * i / first;
+        int[] extremes = scan(source, angles, null, parallel).index;
+        int[] corners = new int[8];
+        for (int t = 0; t < 8; t++)
+            corners[t] = extremes[t * first / 8];
+        int passes = 1;
+
+        while (true) {
+            Point[] convex = hullOf(source, extremes);
+            double tolerance = epsilon * new RotatingCalipers(convex).getDiameter();
+            double errorBound = 0;
+            double[] split = new double[angles.length];
+            int splits = 0;
+            for (int i = 0; i < angles.length; i++) {
+                int j = (i + 1) % angles.length;
+                double gap = (j == 0) ? angles[0] + 2 * Math.PI - angles[i] : angles[j] - angles[i];
+                double height = capHeight(source, angles[i], extremes[i], angles[j], extremes[j]);
+                errorBound = Math.max(errorBound, height);
+                if (height > tolerance && gap > MIN_GAP) split[splits++] = angles[i] + gap / 2;
+            }
+            if (splits == 0) return new ApproximateHull(convex, errorBound, angles.length, passes);
+
+            int[] found = scan(source, Arrays.copyOf(split, splits), corners, parallel).index;
+            passes++;
+            // each new direction goes right after the direction it halves
+            double[] mergedAngles = new double[angles.length + splits];
+            int[] mergedExtremes = new int[angles.length + splits];
+            int count = 0, next = 0;
+            for (int i = 0; i < angles.length; i++) {
+                mergedAngles[count] = angles[i];
+                mergedExtremes[count++] = extremes[i];
+                if (next < splits && split[next] > angles[i] && (i + 1 == angles.length || split[next] < angles[i + 1])) {
+                    mergedAngles[count] = split[next];
+                    mergedExtremes[count++] = found[next++];
+                }
+            }
+            angles = mergedAngles;
+            extremes = mergedExtremes;
+        }
+    }
+
+    /**
+     * Finds the extreme point in every direction, the chunks are merged keeping the lowest index if tie
+     * @param corners the extremes of the 8 main directions, or null to use the ones found so far in each chunk
+     */
+    private static Extremes scan(Source source, double[] angles, int[] corners, boolean parallel) {
+        double[] cos = new double[angles.length];
+        double[] sin = new double[angles.length];
+        for (int d = 0; d < angles.length; d++) {
+            cos[d] = Math.cos(angles[d]);
+            sin[d] = Math.sin(angles[d]);
+        }
+        int size = source.size();
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        if (parallel && chunks > 1) range = range.parallel();
+        return range.mapToObj(chunk -> scanChunk(source, chunk * CHUNK, (int) Math.min((long) (chunk + 1) * CHUNK, size),
+                        cos, sin, corners))
+                .reduce(ApproximateHull::merge).orElseThrow();
+    }
+
+    private static Extremes scanChunk(Source source, int start, int end, double[] cos, double[] sin, int[] corners) {
+        Extremes extremes = new Extremes(cos.length);
+        int[] seen = (corners == null) ? new int[8] : corners;
+        if (corners == null) Arrays.fill(seen, -1);
+        for (int i = start; i < end; i++) {
+            int x = source.getX(i), y = source.getY(i);
+            if (strictlyInside(source, seen, x, y)) continue;
+            for (int d = 0; d < cos.length; d++) {
+                double value = x * cos[d] + y * sin[d];
+                if (extremes.index[d] < 0 || value > extremes.best[d]) {
+                    extremes.best[d] = value;
+                    extremes.index[d] = i;
+                }
+            }
+            if (corners == null)
+                for (int t = 0; t < 8; t++)
+                    seen[t] = extremes.index[t * cos.length / 8];
+        }
+        return extremes;
+    }
+
+    private static Extremes merge(Extremes a, Extremes b) {
+        for (int d = 0; d < a.index.length; d++) {
+            if (b.index[d] < 0) continue;
+            if (a.index[d] < 0 || b.best[d] > a.best[d] || (b.best[d] == a.best[d] && b.index[d] < a.index[d])) {
+                a.best[d] = b.best[d];
+                a.index[d] = b.index[d];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * @param corners the extremes of the 8 main directions, counterclockwise, -1 if not found yet
+     * @return whether the point is strictly inside the polygon of the corners, so it is not extreme in any direction
+     */
+    private static boolean strictlyInside(Source source, int[] corners, int x, int y) {
+        int edges = 0;
+        for (int t = 0; t < 8; t++) {
+            int a = corners[t], b = corners[(t + 1) % 8];
+            if (a < 0 || b < 0) return false;
+            long ax = source.getX(a), ay = source.getY(a);
+            long ex = source.getX(b) - ax, ey = source.getY(b) - ay;
+            if (ex == 0 && ey == 0) continue;
+            if (ex * (y - ay) - ey * (x - ax) <= 0) return false;
+            edges++;
+        }
+        return edges >= 3;
+    }
+
+    /**
+     * The cap between two directions is the triangle made by the extreme points of both directions and the point
+     * where the lines touching the hull in those directions cross
+     * @return the distance from that point to the edge between the two extreme points
+     */
+    private static double capHeight(Source source, double angle1, int extreme1, double angle2, int extreme2) {
+        double c1 = Math.cos(angle1), s1 = Math.sin(angle1);
+        double c2 = Math.cos(angle2), s2 = Math.sin(angle2);
+        // work from the first extreme point so large coordinates don't lose precision
+        double ex = (double) source.getX(extreme2) - source.getX(extreme1);
+        double ey = (double) source.getY(extreme2) - source.getY(extreme1);
+        double h2 = ex * c2 + ey * s2; // how far the second line is from the first extreme point
+        if (h2 <= 0) return 0;
+        double det = c1 * s2 - s1 * c2;
+        double tipX = -h2 * s1 / det, tipY = h2 * c1 / det;
+        return segmentDistance(tipX, tipY, ex, ey);
+    }
+
+    /**
+     * @return the distance from the point to the segment from the origin to (ex, ey)
+     */
+    private static double segmentDistance(double x, double y, double ex, double ey) {
+        double lengthSquared = ex * ex + ey * ey;
+        double t = (lengthSquared == 0) ? 0 : Math.max(0, Math.min(1, (x * ex + y * ey) / lengthSquared));
+        return Math.hypot(x - t * ex, y - t * ey);
+    }
+
+    private static Point[] hullOf(Source source, int[] extremes) {
+        Point[] points = new Point[extremes.length];
+        for (int i = 0; i < extremes.length; i++)
+            points[i] = new Point(source.getX(extremes[i]), source.getY(extremes[i]));
+        return Chain.hull(points, points.length);
+    }
+
+    /**
+     * @return the convex hull of the extreme points, counterclockwise starting from the lowest x (lowest y if tie),
+     *         every vertex is a point of the input
+     */
+    public Point[] getResult() { return result.clone(); }
+
+    /**
+     * @return a distance that no point of the input is farther than from the result, at most e times its diameter
+     *         unless the directions could not be split any further
+     */
+    public double getErrorBound() { return errorBound; }
+
+    /**
+     * @return the number of directions the extreme points were found in
+     */
+    public int getDirections() { return directions; }
+
+    /**
+     * @return the number of passes over the input
+     */
+    public int getPasses() { return passes; }
+}
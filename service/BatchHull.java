@@ -0,0 +1,234 @@
+/*
+  Batch Convex Hull
+       Time Complexity: O(n log n) for each set of points
+ */
+package service;
+
+import setup.Point;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the convex hull of many small sets of points at once
+ * The points are given as one flat buffer of coordinates, x0, y0, x1, y1, ...
+ * and an offsets array where the points of set k are the points offsets[k] to offsets[k+1] - 1
+ * No Point objects are created, each set is solved with monotone chain on the indices of its points
+ * Sets are split into chunks of about the same number of points, and the chunks are solved in parallel,
+ * each thread keeps its scratch arrays between sets
+ */
+public final class BatchHull {
+    private static final int CHUNK_POINTS = 1 << 16; // the number of points a thread handles at a time
+    private static final int INSERTION_CUTOFF = 16;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private BatchHull() {}
+
+    /**
+     * The convex hulls of every set, in one flat buffer
+     */
+    public static final class Result {
+        private final int[] indices;
+        private final int[] offsets;
+
+        private Result(int[] indices, int[] offsets) {
+            this.indices = indices;
+            this.offsets = offsets;
+        }
+
+        /**
+         * @return the index of each point that forms a convex hull, the hull of set k is from offsets[k] to offsets[k+1] - 1
+         */
+        public int[] getIndices() { return indices; }
+
+        /**
+         * @return where the convex hull of each set starts in the indices, with one extra entry at the end
+         */
+        public int[] getOffsets() { return offsets; }
+
+        /**
+         * @return the number of sets
+         */
+        public int size() { return offsets.length - 1; }
+
+        /**
+         * @param set the index of the set
+         * @return the index of each point that forms the convex hull of the set
+         */
+        public int[] getHull(int set) { return Arrays.copyOfRange(indices, offsets[set], offsets[set + 1]); }
+    }
+
+    /**
+     * The arrays a thread reuses from one set to the next
+     */
+    private static class Scratch {
+        private int[] order = new int[512];
+        private int[] hull = new int[1024];
+
+        private void ensure(int size) {
+            if (order.length < size) {
+                order = new int[Math.max(size, order.length * 2)];
+                hull = new int[order.length * 2];
+            }
+        }
+    }
+
+    /**
+     * Finds the convex hull of every set of points
+     * Each hull goes counterclockwise starting from the point with the lowest x (lowest y if tie),
+     * collinear points on the edges are not part of the hull and duplicated points are only given once
+     * @param coords the coordinates of all the points, x0, y0, x1, y1, ...
+     * @param offsets the index of the first point of each set, with the number of points as the last entry
+     * @return the index of every point that forms a convex hull, grouped by set
+     */
+    public static Result compute(int[] coords, int[] offsets) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] * 2 != coords.length)
+            throw new IllegalArgumentException("Offsets doesn't match the number of coordinates");
+        for (int i = 1; i < offsets.length; i++)
+            if (offsets[i] < offsets[i - 1]) throw new IllegalArgumentException("Offsets should be ascending");
+
+        int sets = offsets.length - 1;
+        int total = offsets[sets];
+        // a convex hull never has more points than its set, so each hull can be written where its set starts
+        int[] written = new int[total];
+        int[] counts = new int[sets];
+
+        int[] chunks = chunkStarts(offsets);
+        IntStream.range(0, chunks.length - 1).parallel().forEach(chunk -> {
+            Scratch scratch = SCRATCH.get();
+            for (int set = chunks[chunk]; set < chunks[chunk + 1]; set++)
+                counts[set] = hull(coords, offsets[set], offsets[set + 1], written, scratch);
+        });
+
+        int[] resultOffsets = new int[sets + 1];
+        for (int set = 0; set < sets; set++)
+            resultOffsets[set + 1] = resultOffsets[set] + counts[set];
+        int[] indices = new int[resultOffsets[sets]];
+        for (int set = 0; set < sets; set++)
+            System.arraycopy(written, offsets[set], indices, resultOffsets[set], counts[set]);
+        return new Result(indices, resultOffsets);
+    }
+
+    /**
+     * Groups the sets into chunks of about CHUNK_POINTS points
+     * @return the first set of each chunk, with the number of sets as the last entry
+     */
+    private static int[] chunkStarts(int[] offsets) {
+        int sets = offsets.length - 1;
+        int[] starts = new int[offsets[sets] / CHUNK_POINTS + 2];
+        int count = 1;
+        int nextStart = CHUNK_POINTS;
+        for (int set = 0; set < sets; set++) {
+            if (offsets[set] >= nextStart) {
+                starts[count++] = set;
+                nextStart = offsets[set] + CHUNK_POINTS;
+            }
+        }
+        starts[count++] = sets;
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Monotone chain on the points from start to end - 1
+     * @param out where the convex hull is written, starting at start
+     * @return the number of points in the convex hull
+     */
+    private static int hull(int[] coords, int start, int end, int[] out, Scratch scratch) {
+        int n = end - start;
+        if (n == 0) return 0;
+        scratch.ensure(n);
+        int[] order = scratch.order;
+        for (int i = 0; i < n; i++)
+            order[i] = start + i;
+        sort(order, 0, n, coords);
+
+        // get rid of the duplicated points
+        int distinct = 1;
+        for (int i = 1; i < n; i++)
+            if (compare(order[i], order[distinct - 1], coords) != 0)
+                order[distinct++] = order[i];
+        if (distinct < 3) {
+            System.arraycopy(order, 0, out, start, distinct);
+            return distinct;
+        }
+
+        int[] hull = scratch.hull;
+        int size = 0;
+        // lower hull
+        for (int i = 0; i < distinct; i++) {
+            while (size >= 2 && cross(hull[size - 2], hull[size - 1], order[i], coords) <= 0) size--;
+            hull[size++] = order[i];
+        }
+        // upper hull
+        int lowerSize = size;
+        for (int i = distinct - 2; i >= 0; i--) {
+            while (size > lowerSize && cross(hull[size - 2], hull[size - 1], order[i], coords) <= 0) size--;
+            hull[size++] = order[i];
+        }
+        size--; // the first point is added again at the end
+
+        if (size < 3) size = 2; // every point is on one line, only the two ends are left
+        System.arraycopy(hull, 0, out, start, size);
+        return size;
+    }
+
+    /**
+     * @return positive if a, b, c makes a left turn, negative if it makes a right turn, 0 if collinear
+     */
+    private static long cross(int a, int b, int c, int[] coords) {
+        return Point.orientation(coords[2*a], coords[2*a + 1], coords[2*b], coords[2*b + 1], coords[2*c], coords[2*c + 1]);
+    }
+
+    /**
+     * Compares two points by x order, by y if tie
+     */
+    private static int compare(int a, int b, int[] coords) {
+        int result = Integer.compare(coords[2*a], coords[2*b]);
+        return (result != 0) ? result : Integer.compare(coords[2*a + 1], coords[2*b + 1]);
+    }
+
+    /**
+     * Quicksort on the indices from start to end - 1, insertion sort for short ranges
+     */
+    private static void sort(int[] order, int start, int end, int[] coords) {
+        while (end - start > INSERTION_CUTOFF) {
+            int mid = (start + end) >>> 1;
+            // median of three as the pivot
+            if (compare(order[mid], order[start], coords) < 0) swap(order, mid, start);
+            if (compare(order[end - 1], order[start], coords) < 0) swap(order, end - 1, start);
+            if (compare(order[end - 1], order[mid], coords) < 0) swap(order, end - 1, mid);
+            int pivot = order[mid];
+            int i = start, j = end - 1;
+            while (i <= j) {
+                while (compare(order[i], pivot, coords) < 0) i++;
+                while (compare(order[j], pivot, coords) > 0) j--;
+                if (i <= j) swap(order, i++, j--);
+            }
+            // recurse on the smaller side so the stack stays O(log n)
+            if (j - start < end - i) {
+                sort(order, start, j + 1, coords);
+                start = i;
+            }
+            else {
+                sort(order, i, end, coords);
+                end = j + 1;
+            }
+        }
+        for (int i = start + 1; i < end; i++) {
+            int temp = order[i];
+            int j = i - 1;
+            while (j >= start && compare(order[j], temp, coords) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = temp;
+        }
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int temp = order[i];
+        order[i] = order[j];
+        order[j] = temp;
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import setup.HeapSort;
+import setup.Point;
+
+/**
+ * The monotone chain and the point in hull test shared by the services
+ * Cross products are done in long so large coordinates don't overflow
+ */
+final class Chain {
+    private Chain() {}
+
+    /**
+     * Finds the convex hull with monotone chain, the first size points are sorted in place
+     * @param points the points to find the convex hull of
+     * @param size how many points to use
+     * @return the points that forms the convex hull, counterclockwise starting from the lowest x (lowest y if tie),
+     *         without collinear or duplicated points
+     */
+    static Point[] hull(Point[] points, int size) {
+        HeapSort.sort(points, Point.BYXORDER, size);
+        return sortedHull(points, size);
+    }
+
+    /**
+     * Monotone chain on points that are already sorted by x order (by y if tie), in O(n)
+     * @param points the sorted points, duplicated points are removed in place
+     * @param size how many points to use
+     * @return the points that forms the convex hull, counterclockwise starting from the lowest x (lowest y if tie)
+     */
+    static Point[] sortedHull(Point[] points, int size) {
+        int distinct = 0;
+        for (int i = 0; i < size; i++)
+            if (distinct == 0 || !points[i].equals(points[distinct - 1])) points[distinct++] = points[i];
+        if (distinct < 3) {
+            Point[] result = new Point[distinct];
+            System.arraycopy(points, 0, result, 0, distinct);
+            return result;
+        }
+
+        Point[] convex = new Point[distinct + 1];
+        int count = 0;
+        for (int i = 0; i < distinct; i++) {
+            while (count >= 2 && Point.orientation(convex[count - 2], convex[count - 1], points[i]) <= 0) count--;
+            convex[count++] = points[i];
+        }
+        int lowerSize = count;
+        for (int i = distinct - 2; i >= 0; i--) {
+            while (count > lowerSize && Point.orientation(convex[count - 2], convex[count - 1], points[i]) <= 0) count--;
+            convex[count++] = points[i];
+        }
+        count--; // the first point is added again at the end
+        if (count < 3) count = 2; // every point is on one line, only the two ends are left
+
+        Point[] result = new Point[count];
+        System.arraycopy(convex, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Lists the points of a convex hull by x order (by y if tie) in O(h)
+     * by merging its lower chain with its upper chain walked backwards
+     * @param hull a convex hull, counterclockwise starting from the lowest x (lowest y if tie)
+     * @param out where the points are written
+     * @param start the index of out to start writing at
+     */
+    static void sortedVertices(Point[] hull, Point[] out, int start) {
+        int size = hull.length;
+        if (size < 3) {
+            System.arraycopy(hull, 0, out, start, size);
+            return;
+        }
+        int right = 0; // the last point of the lower chain
+        for (int i = 1; i < size; i++)
+            if (Point.BYXORDER.compare(hull[i], hull[right]) > 0) right = i;
+        int lower = 0, upper = size - 1, index = start;
+        while (lower <= right && upper > right)
+            out[index++] = (Point.BYXORDER.compare(hull[lower], hull[upper]) < 0) ? hull[lower++] : hull[upper--];
+        while (lower <= right) out[index++] = hull[lower++];
+        while (upper > right) out[index++] = hull[upper--];
+    }
+
+    /**
+     * Checks whether the point is inside the convex hull or on its boundary in O(log h)
+     * by finding the wedge from the first point of the hull that the point is in
+     * @param hull the convex hull, counterclockwise
+     * @param size the number of points in the hull
+     * @param pt the point to check
+     * @return true if the point is inside or on the boundary
+     */
+    static boolean contains(Point[] hull, int size, Point pt) {
+        if (size < 3) {
+            for (int i = 0; i < size; i++)
+                if (hull[i].equals(pt)) return true;
+            return size == 2 && Point.orientation(hull[0], hull[1], pt) == 0 && between(hull[0], hull[1], pt);
+        }
+        Point first = hull[0];
+        if (Point.orientation(first, hull[1], pt) < 0 || Point.orientation(first, hull[size - 1], pt) > 0) return false;
+        // the last wedge whose left side the point is not to the right of
+        int lo = 1, hi = size - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (Point.orientation(first, hull[mid], pt) >= 0) lo = mid;
+            else hi = mid - 1;
+        }
+        return Point.orientation(hull[lo], hull[lo + 1], pt) >= 0;
+    }
+
+    /**
+     * @return whether pt, which is on the line through a and b, is between them
+     */
+    private static boolean between(Point a, Point b, Point pt) {
+        return Math.min(a.getX(), b.getX()) <= pt.getX() && pt.getX() <= Math.max(a.getX(), b.getX())
+                && Math.min(a.getY(), b.getY()) <= pt.getY() && pt.getY() <= Math.max(a.getY(), b.getY());
+    }
+}
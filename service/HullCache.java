@@ -0,0 +1,335 @@
+package service;
+
+import algorithms.HullSolver;
+import setup.Point;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Remembers the convex hulls of point sets that were already computed
+ * A point set is found by a 128 bit hash of its points, the order of the points doesn't change the hash
+ * since every point is hashed on its own and the hashes are added up, so it takes O(n) and no sorting
+ * The solver is hashed too, since solvers don't all start the hull at the same vertex or keep collinear points,
+ * a solver without a name only finds its own hulls and they are not saved
+ * The hulls are kept as coordinates, and the cache is bounded by the total number of vertices kept,
+ * once it is full the least recently used (LRU) or the least frequently used (LFU) hull is evicted
+ * The cache can be saved to a file and loaded back
+ * Safe to use from several threads, a hull is computed outside the lock so a miss doesn't block the hits
+ */
+public class HullCache {
+    private static final int FILE_VERSION = 2;
+
+    /**
+     * Which hull is evicted when the cache is full
+     */
+    public enum Policy { LRU, LFU }
+
+    /**
+     * The 128 bit hash of a point set and the solver it was given to
+     */
+    public static final class Key {
+        private final long high, low;
+        private final HullSolver unnamed; // the solver itself when it has no name, compared by identity
+
+        public Key(long high, long low) {
+            this(high, low, null);
+        }
+
+        private Key(long high, long low, HullSolver unnamed) {
+            this.high = high;
+            this.low = low;
+            this.unnamed = unnamed;
+        }
+
+        public long getHigh() { return high; }
+
+        public long getLow() { return low; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return high == key.high && low == key.low && unnamed == key.unnamed;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high ^ low);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+
+    /**
+     * How well the cache is doing, at the time it was asked for
+     */
+    public static final class Stats {
+        private final long hits, misses, evictions;
+        private final int entries;
+        private final long vertices;
+
+        private Stats(long hits, long misses, long evictions, int entries, long vertices) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.vertices = vertices;
+        }
+
+        public long getHits() { return hits; }
+
+        public long getMisses() { return misses; }
+
+        public long getEvictions() { return evictions; }
+
+        /**
+         * @return the number of hulls kept
+         */
+        public int getEntries() { return entries; }
+
+        /**
+         * @return the number of vertices kept over every hull
+         */
+        public long getVertices() { return vertices; }
+
+        /**
+         * @return the fraction of the lookups that were hits
+         */
+        public double getHitRate() { return (hits + misses == 0) ? 0 : (double) hits / (hits + misses); }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + " misses=" + misses + " evictions=" + evictions
+                    + " entries=" + entries + " vertices=" + vertices;
+        }
+    }
+
+    /**
+     * One cached hull, ordered by the policy so the first entry is evicted first
+     */
+    private static final class Entry {
+        private final Key key;
+        private final int[] coords; // x0, y0, x1, y1, ...
+        private long frequency;
+        private long lastUsed;
+
+        private Entry(Key key, int[] coords) {
+            this.key = key;
+            this.coords = coords;
+        }
+
+        private int vertices() {
+            return coords.length / 2;
+        }
+    }
+
+    private final long maxVertices;
+    private final HashMap<Key, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> evictionOrder;
+    private long vertices;
+    private long clock; // increases on every use, orders the entries by how recently they were used
+    private long hits, misses, evictions;
+
+    /**
+     * @param maxVertices the most vertices kept over every hull
+     * @param policy which hull is evicted when the cache is full
+     */
+    public HullCache(long maxVertices, Policy policy) {
+        if (maxVertices < 1) throw new IllegalArgumentException("The cache needs room for at least one vertex");
+        this.maxVertices = maxVertices;
+        if (policy == Policy.LRU)
+            evictionOrder = new TreeSet<>((e1, e2) -> Long.compare(e1.lastUsed, e2.lastUsed));
+        else
+            evictionOrder = new TreeSet<>((e1, e2) -> (e1.frequency != e2.frequency)
+                    ? Long.compare(e1.frequency, e2.frequency) : Long.compare(e1.lastUsed, e2.lastUsed));
+    }
+
+    /**
+     * Hashes the point set with the solver, the order of the points doesn't matter
+     * A named solver has the same key from one run to the next, so a saved cache still finds its hulls
+     * A solver without a name is kept in the key and only matches itself
+     * @param points the points to hash
+     * @param solver the solver the hull comes from
+     * @return the 128 bit hash
+     */
+    public static Key key(Point[] points, HullSolver solver) {
+        String name = solver.name();
+        long tag = 0;
+        if (name != null)
+            for (int i = 0; i < name.length(); i++)
+                tag = mix(tag + name.charAt(i));
+        long sum1 = 0, sum2 = 0;
+        for (Point pt: points) {
+            long packed = ((long) pt.getX() << 32) | (pt.getY() & 0xFFFFFFFFL);
+            long hash = mix(packed + 0x9E3779B97F4A7C15L);
+            sum1 += hash;
+            sum2 += mix(hash ^ 0xC2B2AE3D27D4EB4FL);
+        }
+        return new Key(mix(sum1 ^ points.length ^ tag), mix(sum2 + points.length * 0x165667B19E3779F9L + tag),
+                (name == null) ? solver : null);
+    }
+
+    /**
+     * The finalizer of splitmix64, spreads every bit of the input over the output
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Finds the convex hull in the cache, or computes it and keeps it
+     * The points returned on a hit are new points with the same coordinates, in the order the solver gave them
+     * @param points the points to find the convex hull of
+     * @param solver used when the hull is not in the cache, a hull from another solver is never returned
+     * @return the points that forms the convex hull
+     */
+    public Point[] get(Point[] points, HullSolver solver) {
+        Key key = key(points, solver);
+        Point[] cached = get(key);
+        if (cached != null) return cached;
+        Point[] convex = solver.solve(points);
+        put(key, convex);
+        return convex;
+    }
+
+    /**
+     * @param key the hash of a point set and a solver
+     * @return the convex hull of the point set, null if it is not in the cache
+     */
+    public synchronized Point[] get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touch(entry, 1);
+        Point[] convex = new Point[entry.vertices()];
+        for (int i = 0; i < convex.length; i++)
+            convex[i] = new Point(entry.coords[2*i], entry.coords[2*i + 1]);
+        return convex;
+    }
+
+    /**
+     * Keeps the convex hull of a point set, evicting other hulls if there isn't enough room
+     * A hull larger than the whole cache is not kept
+     * @param key the hash of the point set and the solver
+     * @param convex the convex hull of the point set, from the solver
+     */
+    public void put(Key key, Point[] convex) {
+        int[] coords = new int[convex.length * 2];
+        for (int i = 0; i < convex.length; i++) {
+            coords[2*i] = convex[i].getX();
+            coords[2*i + 1] = convex[i].getY();
+        }
+        put(key, coords, 1);
+    }
+
+    private synchronized void put(Key key, int[] coords, long frequency) {
+        if (coords.length / 2 > maxVertices) return;
+        Entry old = entries.get(key);
+        if (old != null) {
+            touch(old, frequency);
+            return;
+        }
+        Entry entry = new Entry(key, coords);
+        entries.put(key, entry);
+        touch(entry, frequency);
+        vertices += entry.vertices();
+        while (vertices > maxVertices) {
+            Entry evicted = evictionOrder.pollFirst();
+            entries.remove(evicted.key);
+            vertices -= evicted.vertices();
+            evictions++;
+        }
+    }
+
+    /**
+     * Moves the entry to where it belongs in the eviction order after being used
+     */
+    private void touch(Entry entry, long uses) {
+        evictionOrder.remove(entry);
+        entry.frequency += uses;
+        entry.lastUsed = ++clock;
+        evictionOrder.add(entry);
+    }
+
+    /**
+     * @return the hits, misses and evictions so far, and how full the cache is
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size(), vertices);
+    }
+
+    /**
+     * Removes every hull, the stats are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+        evictionOrder.clear();
+        vertices = 0;
+    }
+
+    /**
+     * Writes every hull to the file, from the first to be evicted to the last
+     * The hulls of solvers without a name are left out, since their keys can't be made again in another run
+     * The file is written next to the target then moved over it, so a crash never leaves half a file
+     * @param file where to save the cache
+     */
+    public synchronized void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_VERSION);
+            int count = 0;
+            for (Entry entry: evictionOrder)
+                if (entry.key.unnamed == null) count++;
+            out.writeInt(count);
+            for (Entry entry: evictionOrder) {
+                if (entry.key.unnamed != null) continue;
+                out.writeLong(entry.key.high);
+                out.writeLong(entry.key.low);
+                out.writeLong(entry.frequency);
+                out.writeInt(entry.vertices());
+                for (int coord: entry.coords)
+                    out.writeInt(coord);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Adds the hulls saved in the file, in the order they were saved so the eviction order is kept
+     * @param file a file written by save
+     */
+    public void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) throw new IOException("Not a hull cache file: " + file);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Key key = new Key(in.readLong(), in.readLong());
+                long frequency = in.readLong();
+                int size = in.readInt();
+                if (size < 0) throw new IOException("Corrupted hull cache file: " + file);
+                int[] coords = new int[size * 2];
+                for (int j = 0; j < coords.length; j++)
+                    coords[j] = in.readInt();
+                put(key, coords, frequency);
+            }
+        }
+    }
+}
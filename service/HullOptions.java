@@ -0,0 +1,59 @@
+package service;
+
+import algorithms.HullSolver;
+import algorithms.HullSolvers;
+
+/**
+ * How HullService should compute a convex hull
+ * Immutable, each with method returns a copy with one option changed
+ */
+public final class HullOptions {
+    private static final HullOptions DEFAULTS = new HullOptions(HullSolvers.AUTO, 0);
+
+    private final HullSolver solver;
+    private final long timeoutMillis;
+
+    private HullOptions(HullSolver solver, long timeoutMillis) {
+        this.solver = solver;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return the adaptive solver without a timeout
+     */
+    public static HullOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param solver the solver to use
+     * @return the options with the solver changed
+     */
+    public HullOptions withSolver(HullSolver solver) {
+        if (solver == null) throw new IllegalArgumentException("Solver can't be null");
+        return new HullOptions(solver, timeoutMillis);
+    }
+
+    /**
+     * @param timeoutMillis how long a request has from when it is submitted, 0 for no timeout
+     * @return the options with the timeout changed
+     */
+    public HullOptions withTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) throw new IllegalArgumentException("Timeout can't be negative");
+        return new HullOptions(solver, timeoutMillis);
+    }
+
+    /**
+     * @return the solver to use
+     */
+    public HullSolver getSolver() {
+        return solver;
+    }
+
+    /**
+     * @return how long a request has from when it is submitted, 0 for no timeout
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,74 @@
+package service;
+
+import algorithms.CancellationToken;
+import algorithms.HullResult;
+import setup.Point;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Computes convex hulls asynchronously
+ * Every request runs on one fork-join pool with a thread per core, the algorithms fork their own work
+ * into the same pool, so no matter how many requests are waiting the CPU work is capped at the size of the pool
+ * A waiting request is only a future in the queue of the pool, no thread is held while it waits
+ * The timeout of a request starts when it is submitted, and cancelling the future stops the computation
+ */
+public class HullService implements AutoCloseable {
+    private final ForkJoinPool pool;
+
+    /**
+     * Uses a thread for every core
+     */
+    public HullService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism the most threads computing at the same time
+     */
+    public HullService(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @param points the points to find the convex hull of
+     * @return the convex hull found with the default options
+     */
+    public CompletableFuture<HullResult> computeAsync(Point[] points) {
+        return computeAsync(points, HullOptions.defaults());
+    }
+
+    /**
+     * @param points the points to find the convex hull of, copied so the array can be changed after the call
+     * @param options the solver and the timeout to use
+     * @return the convex hull, or why there is none if it timed out or was cancelled
+     */
+    public CompletableFuture<HullResult> computeAsync(Point[] points, HullOptions options) {
+        Point[] copy = points.clone();
+        CancellationToken cancellation = (options.getTimeoutMillis() > 0)
+                ? CancellationToken.withTimeout(options.getTimeoutMillis()) : new CancellationToken();
+        CompletableFuture<HullResult> future = CompletableFuture.supplyAsync(
+                () -> options.getSolver().solve(copy, cancellation), pool);
+        future.whenComplete((result, exception) -> {
+            if (exception instanceof CancellationException) cancellation.cancel();
+        });
+        return future;
+    }
+
+    /**
+     * @return the number of requests waiting for a thread
+     */
+    public long getQueued() {
+        return pool.getQueuedSubmissionCount();
+    }
+
+    /**
+     * Stops taking requests, the requests already submitted still run
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
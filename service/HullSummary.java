@@ -0,0 +1,162 @@
+/*
+  Hull Summary
+       Time Complexity: O(h1 + h2) to merge two summaries
+ */
+package service;
+
+import setup.Point;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+/**
+ * The convex hull of a set of points, which is all that is needed to get the convex hull of a bigger set
+ * Merging is associative and commutative, so summaries of shards can be combined in any order
+ * Two summaries merge in linear time: the points of each hull are listed by x order, the two lists are merged,
+ * and monotone chain runs on the merged list without sorting
+ * A summary is immutable, and can be turned into a compact byte form:
+ *      a version byte, the number of points summarized, the number of points in the hull,
+ *      the first point, then the difference from each point to the next,
+ *      every number is a zigzag varint so small differences take one or two bytes
+ */
+public final class HullSummary {
+    private static final byte VERSION = 1;
+    private static final HullSummary EMPTY = new HullSummary(new Point[0], 0);
+
+    private final Point[] convex;
+    private final long count;
+
+    private HullSummary(Point[] convex, long count) {
+        this.convex = convex;
+        this.count = count;
+    }
+
+    /**
+     * @return the summary of no points
+     */
+    public static HullSummary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param points the points to summarize, the array is not reordered
+     * @return the summary of the points
+     */
+    public static HullSummary of(Point[] points) {
+        return new HullSummary(Chain.hull(points.clone(), points.length), points.length);
+    }
+
+    /**
+     * @param points the points to summarize, only the current hull is kept while reading them
+     * @return the summary of the points
+     */
+    public static HullSummary of(Iterator<Point> points) {
+        StreamingHull hull = new StreamingHull();
+        hull.addAll(points);
+        return new HullSummary(hull.getResult(), hull.getCount());
+    }
+
+    /**
+     * Combines two summaries in O(h1 + h2)
+     * @param other the other summary
+     * @return the summary of the points of both summaries
+     */
+    public HullSummary merge(HullSummary other) {
+        if (other.convex.length == 0) return (other.count == 0) ? this : new HullSummary(convex, count + other.count);
+        if (convex.length == 0) return new HullSummary(other.convex, count + other.count);
+
+        Point[] sorted1 = new Point[convex.length];
+        Chain.sortedVertices(convex, sorted1, 0);
+        Point[] sorted2 = new Point[other.convex.length];
+        Chain.sortedVertices(other.convex, sorted2, 0);
+        Point[] merged = new Point[sorted1.length + sorted2.length];
+        int i = 0, j = 0, index = 0;
+        while (i < sorted1.length && j < sorted2.length)
+            merged[index++] = (Point.BYXORDER.compare(sorted1[i], sorted2[j]) <= 0) ? sorted1[i++] : sorted2[j++];
+        while (i < sorted1.length) merged[index++] = sorted1[i++];
+        while (j < sorted2.length) merged[index++] = sorted2[j++];
+        return new HullSummary(Chain.sortedHull(merged, merged.length), count + other.count);
+    }
+
+    /**
+     * @return the points that forms the convex hull, counterclockwise starting from the lowest x (lowest y if tie)
+     */
+    public Point[] getResult() {
+        return convex.clone();
+    }
+
+    /**
+     * @return the number of points summarized
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the compact byte form of the summary
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + convex.length * 4);
+        out.write(VERSION);
+        writeVarLong(out, count);
+        writeVarLong(out, convex.length);
+        long prevX = 0, prevY = 0;
+        for (Point pt: convex) {
+            writeVarLong(out, zigzag(pt.getX() - prevX));
+            writeVarLong(out, zigzag(pt.getY() - prevY));
+            prevX = pt.getX();
+            prevY = pt.getY();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a summary back from its byte form
+     * @param bytes the byte form made by toBytes
+     * @return the summary
+     */
+    public static HullSummary fromBytes(byte[] bytes) {
+        int[] position = {0};
+        if (bytes.length == 0 || bytes[position[0]++] != VERSION)
+            throw new IllegalArgumentException("Not a hull summary");
+        long count = readVarLong(bytes, position);
+        long size = readVarLong(bytes, position);
+        if (size < 0 || size > bytes.length) throw new IllegalArgumentException("Corrupted hull summary");
+        Point[] convex = new Point[(int) size];
+        long x = 0, y = 0;
+        for (int i = 0; i < convex.length; i++) {
+            x += unzigzag(readVarLong(bytes, position));
+            y += unzigzag(readVarLong(bytes, position));
+            convex[i] = new Point((int) x, (int) y);
+        }
+        if (position[0] != bytes.length) throw new IllegalArgumentException("Corrupted hull summary");
+        return new HullSummary(convex, count);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) throw new IllegalArgumentException("Corrupted hull summary");
+            byte b = bytes[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("Corrupted hull summary");
+    }
+}
@@ -0,0 +1,117 @@
+package service;
+
+import setup.Point;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the points of a point file, or of a range of bytes of it
+ * A point file has one point per line, the x and the y separated by spaces, tabs or a comma, blank lines are skipped
+ * A range has every line that starts inside it, so ranges that cover the file read each line exactly once
+ */
+public class PointFileReader implements Iterator<Point>, Closeable {
+    private final FileChannel channel;
+    private final InputStream in;
+    private final long end;
+    private long position; // the index of the byte read next
+    private Point next;
+
+    /**
+     * @param file the point file
+     * @param start the first byte of the range
+     * @param end the byte after the range
+     */
+    public PointFileReader(Path file, long start, long end) throws IOException {
+        this.end = end;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        position = Math.max(0, start - 1);
+        channel.position(position);
+        in = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+        if (start > 0) {
+            // the line going through the start belongs to the range before, unless the byte before the start ends it
+            int b = read();
+            while (b != -1 && b != '\n')
+                b = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int b = in.read();
+        if (b != -1) position++;
+        return b;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) return true;
+        try {
+            next = readLine();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Point next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Point result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * @return the point of the next line that is not blank, null once the range is done
+     */
+    private Point readLine() throws IOException {
+        while (position < end) {
+            long lineStart = position;
+            long[] values = new long[2];
+            int count = 0;
+            int b = read();
+            if (b == -1) return null;
+            while (b != '\n' && b != -1) {
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    boolean negative = (b == '-');
+                    long value = negative ? 0 : b - '0';
+                    b = read();
+                    while (b >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        if (value > Integer.MAX_VALUE + 1L) throw badLine(lineStart);
+                        b = read();
+                    }
+                    if (count == 2) throw badLine(lineStart);
+                    values[count++] = negative ? -value : value;
+                }
+                else if (b == ' ' || b == ',' || b == '\t' || b == '\r') b = read();
+                else throw badLine(lineStart);
+            }
+            if (count == 2) {
+                if (values[0] > Integer.MAX_VALUE || values[1] > Integer.MAX_VALUE) throw badLine(lineStart);
+                return new Point((int) values[0], (int) values[1]);
+            }
+            if (count != 0) throw badLine(lineStart);
+        }
+        return null;
+    }
+
+    private static IllegalArgumentException badLine(long lineStart) {
+        return new IllegalArgumentException("The line at byte " + lineStart + " is not a point");
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
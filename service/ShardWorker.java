@@ -0,0 +1,79 @@
+package service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Finds the hull summary of one shard of a point file, the worker side of ShardedHull
+ * A shard is a range of bytes of the file, read with PointFileReader
+ *
+ * Run as a process:  java service.ShardWorker file start end
+ *      writes the summary bytes to standard output
+ * Run as a server:   java service.ShardWorker --serve port
+ *      listens on the loopback address, each request is the path, the start and the end of a shard,
+ *      each reply is the length of the summary bytes followed by the bytes
+ */
+public final class ShardWorker {
+    private ShardWorker() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--serve")) {
+            try (ServerSocket server = new ServerSocket(Integer.parseInt(args[1]), 50, InetAddress.getLoopbackAddress())) {
+                serve(server);
+            }
+        }
+        else if (args.length == 3) {
+            byte[] bytes = summarize(Paths.get(args[0]), Long.parseLong(args[1]), Long.parseLong(args[2])).toBytes();
+            OutputStream out = System.out;
+            out.write(bytes);
+            out.flush();
+        }
+        else {
+            System.err.println("Usage: ShardWorker file start end | ShardWorker --serve port");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Answers shard requests until the server socket is closed
+     * @param server the socket to accept requests on
+     */
+    public static void serve(ServerSocket server) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                Path file = Paths.get(in.readUTF());
+                long start = in.readLong();
+                long end = in.readLong();
+                byte[] bytes = summarize(file, start, end).toBytes();
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.flush();
+            }
+            catch (IOException | RuntimeException e) {
+                // the coordinator sees the connection close without a reply and runs the shard again
+            }
+        }
+    }
+
+    /**
+     * Reads every point of the shard, only keeping the current convex hull
+     * @param file the point file
+     * @param start the first byte of the shard
+     * @param end the byte after the shard
+     * @return the summary of the points in the shard
+     */
+    public static HullSummary summarize(Path file, long start, long end) throws IOException {
+        try (PointFileReader reader = new PointFileReader(file, start, end)) {
+            return HullSummary.of(reader);
+        }
+    }
+}
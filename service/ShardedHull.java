@@ -0,0 +1,194 @@
+package service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the convex hull of a point file that is too big for one process
+ * The file is split into shards of about the same number of bytes, each shard is summarized by a worker,
+ * and the summaries are merged, so only convex hulls ever travel between processes
+ * The workers are either new JVMs on this machine, or ShardWorker servers reached over loopback sockets
+ * A shard whose worker fails, times out or replies with something that is not a summary is run again,
+ * on the next worker when there are several
+ */
+public class ShardedHull {
+    private final Path file;
+    private final int shards;
+    private int maxAttempts = 3;
+    private long timeoutMillis = 60_000;
+    private final AtomicInteger retries = new AtomicInteger();
+
+    /**
+     * @param file the point file, one point per line
+     * @param shards how many shards to split the file into
+     */
+    public ShardedHull(Path file, int shards) {
+        if (shards < 1) throw new IllegalArgumentException("Need at least one shard");
+        this.file = file.toAbsolutePath();
+        this.shards = shards;
+    }
+
+    /**
+     * @param maxAttempts how many times a shard is run before giving up
+     * @return this
+     */
+    public ShardedHull setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("Need at least one attempt");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * @param timeoutMillis how long a worker has to summarize its shard
+     * @return this
+     */
+    public ShardedHull setTimeout(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * @return how many times a shard had to be run again
+     */
+    public int getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Runs each shard in a new JVM with the same class path as this one
+     * @param parallelism how many workers run at the same time
+     * @return the summary of every point in the file
+     */
+    public HullSummary computeWithProcesses(int parallelism) {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        return compute(parallelism, (shard, start, end, attempt) -> {
+            // the summary goes to a file so the worker never blocks on a full pipe
+            Path output = Files.createTempFile("shard", ".hull");
+            Process process = new ProcessBuilder(java, "-cp", classPath, ShardWorker.class.getName(),
+                    file.toString(), Long.toString(start), Long.toString(end))
+                    .redirectOutput(output.toFile())
+                    .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+            try {
+                if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS))
+                    throw new IOException("Worker timed out");
+                if (process.exitValue() != 0) throw new IOException("Worker exited with " + process.exitValue());
+                return HullSummary.fromBytes(Files.readAllBytes(output));
+            }
+            finally {
+                process.destroyForcibly();
+                Files.deleteIfExists(output);
+            }
+        });
+    }
+
+    /**
+     * Sends each shard to one of the workers, a shard that fails is sent to the next worker
+     * The workers need to be able to read the file at the same path
+     * @param workers the addresses of ShardWorker servers
+     * @return the summary of every point in the file
+     */
+    public HullSummary computeWithWorkers(List<InetSocketAddress> workers) {
+        if (workers.isEmpty()) throw new IllegalArgumentException("Need at least one worker");
+        return compute(workers.size(), (shard, start, end, attempt) -> {
+            InetSocketAddress worker = workers.get((shard + attempt) % workers.size());
+            try (Socket socket = new Socket()) {
+                socket.connect(worker, (int) Math.min(Integer.MAX_VALUE, timeoutMillis));
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, timeoutMillis));
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeUTF(file.toString());
+                out.writeLong(start);
+                out.writeLong(end);
+                out.flush();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                int length = in.readInt();
+                if (length < 0) throw new IOException("Bad reply from " + worker);
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                return HullSummary.fromBytes(bytes);
+            }
+        });
+    }
+
+    /**
+     * How one attempt at a shard is run
+     */
+    private interface ShardRunner {
+        HullSummary run(int shard, long start, long end, int attempt) throws Exception;
+    }
+
+    /**
+     * Runs every shard, retrying the failed ones, and merges the summaries
+     */
+    private HullSummary compute(int parallelism, ShardRunner runner) {
+        long[] splits;
+        try {
+            splits = splits(Files.size(file));
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Can't read " + file, e);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, shards)));
+        try {
+            List<Future<HullSummary>> results = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                int shard = i;
+                results.add(executor.submit(() -> runShard(runner, shard, splits[shard], splits[shard + 1])));
+            }
+            HullSummary summary = HullSummary.empty();
+            for (Future<HullSummary> result: results)
+                summary = summary.merge(result.get());
+            return summary;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the workers", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A shard failed on every attempt", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private HullSummary runShard(ShardRunner runner, int shard, long start, long end) throws Exception {
+        Exception failure = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) retries.incrementAndGet();
+            try {
+                return runner.run(shard, start, end, attempt);
+            }
+            catch (Exception e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * @param length the number of bytes in the file
+     * @return the first byte of each shard, with the length of the file at the end
+     */
+    private long[] splits(long length) {
+        long[] splits = new long[shards + 1];
+        for (int i = 0; i <= shards; i++)
+            splits[i] = length * i / shards;
+        return splits;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+  Streaming Convex Hull
+       Time Complexity: O(log h) for each point that is inside the hull,
+                        O((h + b) log (h + b)) for each rebuild, b is the size of the buffer
+ */
+package service;
+
+import setup.Point;
+
+import java.util.Iterator;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Folds a stream of points of any length into a convex hull
+ * Only the current convex hull and a small buffer of points are kept, so memory is O(h + b)
+ * A point inside the current hull can never be part of the convex hull, so it is thrown away in O(log h)
+ * The rest goes into the buffer, and once the buffer is full the hull is rebuilt from the hull and the buffer
+ */
+public class StreamingHull {
+    public static final int DEFAULT_BUFFER = 4096;
+
+    private Point[] convex;
+    private Point[] buffer;
+    private int buffered;
+    private final int bufferSize;
+    private long count, rejected;
+
+    public StreamingHull() {
+        this(DEFAULT_BUFFER);
+    }
+
+    /**
+     * @param bufferSize how many points are kept before the hull is rebuilt
+     */
+    public StreamingHull(int bufferSize) {
+        if (bufferSize < 1) throw new IllegalArgumentException("The buffer needs to hold at least one point");
+        this.bufferSize = bufferSize;
+        convex = new Point[0];
+        buffer = new Point[bufferSize];
+        buffered = 0;
+    }
+
+    /**
+     * Adds a point to the stream
+     * @param pt the point added
+     */
+    public void add(Point pt) {
+        if (pt == null) throw new IllegalArgumentException("Point can't be null");
+        count++;
+        if (Chain.contains(convex, convex.length, pt)) {
+            rejected++;
+            return;
+        }
+        buffer[buffered++] = pt;
+        if (buffered == bufferSize) rebuild();
+    }
+
+    /**
+     * Adds every point left in the iterator
+     * @param points the points to add
+     */
+    public void addAll(Iterator<Point> points) {
+        while (points.hasNext())
+            add(points.next());
+    }
+
+    /**
+     * Adds every point of the other stream, the other stream is not changed
+     * @param other the other stream
+     */
+    public void addAll(StreamingHull other) {
+        for (Point pt: other.convex)
+            add(pt);
+        for (int i = 0; i < other.buffered; i++)
+            add(other.buffer[i]);
+    }
+
+    /**
+     * Builds the new convex hull out of the old one and the buffer
+     */
+    private void rebuild() {
+        Point[] temp = new Point[convex.length + buffered];
+        System.arraycopy(convex, 0, temp, 0, convex.length);
+        System.arraycopy(buffer, 0, temp, convex.length, buffered);
+        convex = Chain.hull(temp, temp.length);
+        for (int i = 0; i < buffered; i++)
+            buffer[i] = null;
+        buffered = 0;
+    }
+
+    /**
+     * @return the points that forms the convex hull of every point added so far,
+     *         counterclockwise starting from the lowest x (lowest y if tie)
+     */
+    public Point[] getResult() {
+        if (buffered > 0) rebuild();
+        return convex.clone();
+    }
+
+    /**
+     * @return the number of points added
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of points thrown away because they were inside the hull
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Finds the convex hull of the points without keeping all of them
+     * @param points the points to find the convex hull of
+     * @return the points that forms the convex hull
+     */
+    public static Point[] of(Iterator<Point> points) {
+        StreamingHull hull = new StreamingHull();
+        hull.addAll(points);
+        return hull.getResult();
+    }
+
+    /**
+     * Finds the convex hull of the points without keeping all of them
+     * @param points the points to find the convex hull of
+     * @return the points that forms the convex hull
+     */
+    public static Point[] of(Stream<Point> points) {
+        return points.collect(collector());
+    }
+
+    /**
+     * Collects a stream into its convex hull, parallel streams fold each part then combine them
+     * @return the collector
+     */
+    public static Collector<Point, StreamingHull, Point[]> collector() {
+        return Collector.of(StreamingHull::new, StreamingHull::add, (hull1, hull2) -> {
+            hull1.addAll(hull2);
+            return hull1;
+        }, StreamingHull::getResult);
+    }
+}
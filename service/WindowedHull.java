@@ -0,0 +1,282 @@
+/*
+  Time Windowed Convex Hull
+       Time Complexity: O(log h) for each point that is inside its pane's hull,
+                        O(k h log (k h)) when a window made of k panes closes
+ */
+package service;
+
+import setup.Point;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Finds the convex hull of the points in each time window of a stream and emits it when the window closes
+ * Tumbling windows: windows of a fixed size that don't overlap
+ * Sliding windows: windows of a fixed size that start every slide, so they overlap when the slide is smaller
+ * Session windows: points that are less than a gap apart in time are part of the same window
+ *
+ * Tumbling and sliding windows are split into panes of gcd(size, slide), each pane folds its points
+ * into a streaming hull as they arrive, and a window only merges the hulls of its panes when it closes,
+ * so overlapping windows share the work done on their panes
+ * A window closes once the watermark, the largest timestamp seen so far, reaches its end
+ * Points that arrive after every window with their pane is closed are late and thrown away,
+ * a sliding window can still take a point whose pane was part of a window that closed already
+ */
+public class WindowedHull {
+    private enum Kind {TUMBLING, SLIDING, SESSION}
+
+    /**
+     * A closed window and the convex hull of its points
+     */
+    public static final class Window {
+        private final long start, end;
+        private final Point[] convex;
+
+        private Window(long start, long end, Point[] convex) {
+            this.start = start;
+            this.end = end;
+            this.convex = convex;
+        }
+
+        /**
+         * @return the first time in the window
+         */
+        public long getStart() { return start; }
+
+        /**
+         * @return the end of the window, not part of the window
+         */
+        public long getEnd() { return end; }
+
+        /**
+         * @return the points that forms the convex hull of the window
+         */
+        public Point[] getResult() { return convex.clone(); }
+    }
+
+    /**
+     * The points of one pane, folded into a streaming hull until the pane closes
+     */
+    private static class Pane {
+        private StreamingHull builder = new StreamingHull(256);
+        private Point[] convex;
+
+        private void add(Point pt) {
+            if (builder == null) {
+                // a closed window already took the hull of the pane, the windows still open need the point too
+                builder = new StreamingHull(256);
+                for (Point vertex: convex)
+                    builder.add(vertex);
+                convex = null;
+            }
+            builder.add(pt);
+        }
+
+        private Point[] getResult() {
+            if (convex == null) {
+                convex = builder.getResult();
+                builder = null;
+            }
+            return convex;
+        }
+    }
+
+    private final Kind kind;
+    private final long size, slide, pane, gap;
+    private final Consumer<Window> listener;
+    private long watermark = Long.MIN_VALUE;
+    private long late;
+
+    // tumbling and sliding windows
+    private final TreeMap<Long, Pane> panes = new TreeMap<>();
+    private long nextWindowStart;
+    private boolean isStart;
+
+    // session windows
+    private StreamingHull session;
+    private long sessionStart, sessionLast;
+
+    private WindowedHull(Kind kind, long size, long slide, long gap, Consumer<Window> listener) {
+        this.kind = kind;
+        this.size = size;
+        this.slide = slide;
+        this.gap = gap;
+        this.listener = listener;
+        pane = (kind == Kind.SESSION) ? 0 : gcd(size, slide);
+    }
+
+    /**
+     * @param size the length of each window
+     * @param listener called with each window when it closes
+     * @return windows of a fixed size that don't overlap
+     */
+    public static WindowedHull tumbling(long size, Consumer<Window> listener) {
+        if (size <= 0) throw new IllegalArgumentException("Size should be positive");
+        return new WindowedHull(Kind.TUMBLING, size, size, 0, listener);
+    }
+
+    /**
+     * @param size the length of each window
+     * @param slide the time between the start of two windows
+     * @param listener called with each window when it closes
+     * @return windows of a fixed size that start every slide
+     */
+    public static WindowedHull sliding(long size, long slide, Consumer<Window> listener) {
+        if (size <= 0 || slide <= 0) throw new IllegalArgumentException("Size and slide should be positive");
+        return new WindowedHull(Kind.SLIDING, size, slide, 0, listener);
+    }
+
+    /**
+     * @param gap a window closes once no point arrives for this long
+     * @param listener called with each window when it closes
+     * @return windows of points that are less than gap apart
+     */
+    public static WindowedHull session(long gap, Consumer<Window> listener) {
+        if (gap <= 0) throw new IllegalArgumentException("Gap should be positive");
+        return new WindowedHull(Kind.SESSION, 0, 0, gap, listener);
+    }
+
+    /**
+     * Adds a point to its windows, then closes the windows the new watermark has passed
+     * @param pt the point added
+     * @param timestamp the time of the point
+     */
+    public void add(Point pt, long timestamp) {
+        if (kind == Kind.SESSION) addToSession(pt, timestamp);
+        else addToPane(pt, timestamp);
+        advanceTo(timestamp);
+    }
+
+    /**
+     * Moves the watermark forward without adding a point, closing the windows that ended before it
+     * @param time the new watermark, ignored if it is behind the current watermark
+     */
+    public void advanceTo(long time) {
+        if (time <= watermark) return;
+        watermark = time;
+        if (kind == Kind.SESSION) {
+            if (session != null && watermark >= sessionLast + gap) closeSession();
+        }
+        else closeWindows();
+    }
+
+    /**
+     * Closes every window that still has points, as if the stream ended
+     */
+    public void flush() {
+        if (kind == Kind.SESSION) {
+            if (session != null) closeSession();
+        }
+        else if (!panes.isEmpty()) advanceTo(Math.max(watermark, panes.lastKey() + pane + size));
+    }
+
+    /**
+     * @return the number of points thrown away because every window they were in was already closed
+     */
+    public long getLate() {
+        return late;
+    }
+
+    private void addToPane(Point pt, long timestamp) {
+        long paneStart = Math.floorDiv(timestamp, pane) * pane;
+        if (watermark != Long.MIN_VALUE && Math.floorDiv(paneStart, slide) * slide + size <= watermark) {
+            late++; // the last window with the pane has closed
+            return;
+        }
+        // the windows with the pane that closed already were emitted without it, they are not emitted again
+        long first = firstWindowWith(paneStart);
+        if (watermark != Long.MIN_VALUE) first = Math.max(first, firstWindowWith(watermark));
+        if (!isStart || first < nextWindowStart) {
+            isStart = true;
+            nextWindowStart = first;
+        }
+        panes.computeIfAbsent(paneStart, key -> new Pane()).add(pt);
+    }
+
+    /**
+     * @return the start of the first window that has the time in it, such as the start of a pane
+     */
+    private long firstWindowWith(long time) {
+        return (Math.floorDiv(time - size, slide) + 1) * slide;
+    }
+
+    /**
+     * Emits every window that ended before the watermark, skipping the windows without points
+     */
+    private void closeWindows() {
+        while (isStart && !panes.isEmpty() && nextWindowStart + size <= watermark) {
+            long windowEnd = nextWindowStart + size;
+            Map<Long, Pane> inWindow = panes.subMap(nextWindowStart, true, windowEnd, false);
+            if (inWindow.isEmpty()) {
+                // jump to the first window that has the next pane
+                Long next = panes.ceilingKey(windowEnd);
+                if (next == null) {
+                    nextWindowStart = firstWindowWith(panes.lastKey() + pane);
+                    break;
+                }
+                nextWindowStart = Math.max(nextWindowStart + slide, firstWindowWith(next));
+                continue;
+            }
+
+            ArrayList<Point[]> hulls = new ArrayList<>(inWindow.size());
+            int total = 0;
+            for (Pane p: inWindow.values()) {
+                Point[] convex = p.getResult();
+                hulls.add(convex);
+                total += convex.length;
+            }
+            Point[] merged = new Point[total];
+            int index = 0;
+            for (Point[] convex: hulls) {
+                System.arraycopy(convex, 0, merged, index, convex.length);
+                index += convex.length;
+            }
+            listener.accept(new Window(nextWindowStart, windowEnd, Chain.hull(merged, total)));
+
+            nextWindowStart += slide;
+            // the panes before the next window are not part of any window that is still open
+            Iterator<Long> iterator = panes.keySet().iterator();
+            while (iterator.hasNext() && iterator.next() < nextWindowStart)
+                iterator.remove();
+        }
+    }
+
+    private void addToSession(Point pt, long timestamp) {
+        if (session != null && timestamp >= sessionLast + gap) closeSession();
+        if (session == null) {
+            if (watermark != Long.MIN_VALUE && timestamp + gap <= watermark) {
+                // the session this point belongs to is already closed
+                late++;
+                return;
+            }
+            session = new StreamingHull(256);
+            sessionStart = timestamp;
+            sessionLast = timestamp;
+        }
+        else if (timestamp + gap <= sessionStart) {
+            late++;
+            return;
+        }
+        session.add(pt);
+        sessionStart = Math.min(sessionStart, timestamp);
+        sessionLast = Math.max(sessionLast, timestamp);
+    }
+
+    private void closeSession() {
+        listener.accept(new Window(sessionStart, sessionLast + gap, session.getResult()));
+        session = null;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long temp = a % b;
+            a = b;
+            b = temp;
+        }
+        return a;
+    }
+}
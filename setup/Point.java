@@ -215,6 +215,29 @@ public class Point implements Comparable<Point> {
         return (firstVal*secondVal) - (thirdVal*fourthVal);
     }
 
+    /**
+     * The same turn as direction, but worked out in long so it can't overflow
+     * direction overflows once the coordinates span more than about 46000,
+     * this is exact as long as the coordinates span less than 2^31
+     * @param pt1 the first point
+     * @param pt2 the second point
+     * @param pt3 the third point
+     * @return 0 if pt2 and pt3 are collinear,
+     *      positive if pt2 and pt3 is a left turn,
+     *      negative if pt2 and pt3 is a right turn
+     */
+    public static long orientation(Point pt1, Point pt2, Point pt3) {
+        return orientation(pt1.x, pt1.y, pt2.x, pt2.y, pt3.x, pt3.y);
+    }
+
+    /**
+     * The turn from the first to the second to the third point, for coordinates kept in arrays instead of points
+     * @return 0 if collinear, positive if a left turn, negative if a right turn
+     */
+    public static long orientation(long x1, long y1, long x2, long y2, long x3, long y3) {
+        return (x2 - x1) * (y3 - y1) - (y2 - y1) * (x3 - x1);
+    }
+
     /**
      * calculate the euclidean distance without taking the square root of it
      *      Reason for not square root: square root is too expensive and unnecessary
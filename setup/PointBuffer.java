@@ -0,0 +1,82 @@
+package setup;
+
+import java.util.Arrays;
+
+/**
+ * Points kept as one flat array of coordinates, x0, y0, x1, y1, ...
+ * Chose a flat array over Point objects since a hundred million points as objects would not fit in memory
+ */
+public class PointBuffer {
+
+    private int[] coords;
+    private int size;
+
+    public PointBuffer()
+    {
+        this(16);
+    }
+
+    /**
+     * @param capacity the number of points the buffer holds before it has to grow
+     */
+    public PointBuffer(int capacity)
+    {
+        coords = new int[Math.max(1, capacity) * 2];
+        size = 0;
+    }
+
+    /**
+     * Uses the array as the buffer without copying it
+     * @param coords the coordinates, x0, y0, x1, y1, ...
+     * @return the buffer holding the points of the array
+     */
+    public static PointBuffer wrap(int[] coords)
+    {
+        if (coords.length % 2 != 0) throw new IllegalArgumentException("Every x needs a y");
+        PointBuffer buffer = new PointBuffer(0);
+        buffer.coords = coords;
+        buffer.size = coords.length / 2;
+        return buffer;
+    }
+
+    /**
+     * Adds a point at the end, the array doubles when it is full
+     * @param x the x of the point
+     * @param y the y of the point
+     */
+    public void add(int x, int y)
+    {
+        if (2 * size == coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+        coords[2 * size] = x;
+        coords[2 * size + 1] = y;
+        size++;
+    }
+
+    /**
+     * @param pt the point to add
+     */
+    public void add(Point pt) { add(pt.getX(), pt.getY()); }
+
+    /**
+     * @return the number of points
+     */
+    public int size() { return size; }
+
+    /**
+     * @param index the index of the point
+     * @return the x of the point
+     */
+    public int getX(int index) { return coords[2 * index]; }
+
+    /**
+     * @param index the index of the point
+     * @return the y of the point
+     */
+    public int getY(int index) { return coords[2 * index + 1]; }
+
+    /**
+     * @param index the index of the point
+     * @return a new point with the coordinates of the point
+     */
+    public Point getPoint(int index) { return new Point(getX(index), getY(index)); }
+}
@@ -0,0 +1,97 @@
+/*
+  Chose to use a least significant digit radix sort because it runs in linear time when the coordinates fall in a small range.
+ */
+
+package setup;
+
+import java.util.Arrays;
+
+public class RadixSort {
+    /**
+     * Sorts the points by x order (if tie, sort by y) using radix sort
+     * Only the bits that the coordinates actually use are sorted on,
+     *      so a small coordinate range needs fewer passes over the points
+     * Is stable but uses O(n) extra space
+     * @param points Array of points to be sorted
+     */
+    public static void sortByX(Point[] points)
+    {
+        sortByX(points, 0, points.length);
+    }
+
+    /**
+     * Sort an array from the starting Index up to the ending Index by x order (if tie, sort by y)
+     * @param points the points to be sorted
+     * @param startInd the index to start the sorting
+     * @param endInd the index to sort up to
+     */
+    public static void sortByX(Point[] points, int startInd, int endInd) {
+        int size = endInd - startInd;
+        if (size < 2) return;
+        int minX = points[startInd].getX();
+        int maxX = minX;
+        int minY = points[startInd].getY();
+        int maxY = minY;
+        for (int i = startInd + 1; i < endInd; i++) {
+            minX = Math.min(minX, points[i].getX());
+            maxX = Math.max(maxX, points[i].getX());
+            minY = Math.min(minY, points[i].getY());
+            maxY = Math.max(maxY, points[i].getY());
+        }
+
+        // the x goes in the upper half of the key so the keys are in x order, then y order
+        long[] keys = new long[size];
+        Point[] items = new Point[size];
+        for (int i = 0; i < size; i++) {
+            Point pt = points[startInd + i];
+            keys[i] = ((long) pt.getX() - minX) << 32 | ((long) pt.getY() - minY);
+            items[i] = pt;
+        }
+
+        int bits = (size < 1 << 16) ? 8 : 16; // a smaller digit for fewer points so counting stays cheap
+        int yBits = 64 - Long.numberOfLeadingZeros((long) maxY - minY);
+        int xBits = 64 - Long.numberOfLeadingZeros((long) maxX - minX);
+        long[] tempKeys = new long[size];
+        Point[] tempItems = new Point[size];
+        int[] count = new int[(1 << bits) + 1];
+        for (int shift = 0; shift < 32 + xBits; shift += bits) {
+            if (shift < 32 && shift >= yBits) { // no more y bits to sort on, skip to the x bits
+                shift = 32 - bits;
+                continue;
+            }
+            countingPass(keys, items, tempKeys, tempItems, count, shift, bits);
+            long[] swapKeys = keys;
+            keys = tempKeys;
+            tempKeys = swapKeys;
+            Point[] swapItems = items;
+            items = tempItems;
+            tempItems = swapItems;
+        }
+        System.arraycopy(items, 0, points, startInd, size);
+    }
+
+    /**
+     * Stable counting sort on one digit of the keys
+     * @param keys the keys to sort by
+     * @param items the points that go with the keys
+     * @param tempKeys where the sorted keys are written to
+     * @param tempItems where the sorted points are written to
+     * @param count the array used for counting, has one more than 2^bits slots
+     * @param shift where the digit starts in the key
+     * @param bits how many bits the digit has
+     */
+    private static void countingPass(long[] keys, Point[] items, long[] tempKeys, Point[] tempItems,
+                                     int[] count, int shift, int bits) {
+        int mask = (1 << bits) - 1;
+        Arrays.fill(count, 0);
+        for (long key: keys)
+            count[(int) (key >>> shift & mask) + 1]++;
+        for (int i = 0; i < mask + 1; i++)
+            count[i+1] += count[i];
+        for (int i = 0; i < keys.length; i++) {
+            int digit = (int) (keys[i] >>> shift & mask);
+            tempKeys[count[digit]] = keys[i];
+            tempItems[count[digit]++] = items[i];
+        }
+    }
+}
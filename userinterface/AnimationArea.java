@@ -5,6 +5,7 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.util.HashSet;
+import algorithms.OnlineHull;
 import setup.Point;
 
 public class AnimationArea extends Canvas implements MouseListener
@@ -17,6 +18,7 @@ public class AnimationArea extends Canvas implements MouseListener
     public final Color BLUE = Color.BLUE;
     public final Color MAGENTA = Color.MAGENTA;
     public final Color CYAN = Color.CYAN;
+    private final Color[] palette = {BLACK, LIGHT_GRAY, RED, GREEN, ORANGE, BLUE, MAGENTA, CYAN};
 
     private boolean isAnimationMode; // to disable the mouse clicking
     private HashSet<Point> points;
@@ -29,6 +31,17 @@ public class AnimationArea extends Canvas implements MouseListener
     private final BufferedImage offscreenImage;
     private final Graphics2D offscreen ;
 
+    // replaying a step trace
+    private StepTrace recording; // where the draw calls go while an algorithm is being recorded
+    private StepTrace replaying;
+    private int replayedFrame; // the last frame whose point colors are on the point layer
+    private BufferedImage pointLayer; // the points are only redrawn when their color changes
+    private Graphics2D pointGraphics;
+    private final FramePainter framePainter = new FramePainter();
+
+    // the convex hull of the points placed so far, shown while placing points
+    private OnlineHull liveHull = new OnlineHull();
+
     public AnimationArea(HashSet<Point> points)
     {
         isAnimationMode = false;
@@ -63,22 +76,135 @@ public class AnimationArea extends Canvas implements MouseListener
 
     // draw Points and Lines
     public void drawPoint(Point pt)
+    {
+        if (recording != null) {
+            recording.point(pt);
+            return;
+        }
+        drawPoint(offscreen, pt);
+        paint(offscreen);
+    }
+    private void drawPoint(Graphics2D graphics, Point pt)
     {
         // if the point is red set the pen color to red first, else set it to black
-        if (pt.isRed()) setPenColor(RED);
-        else setPenColor(BLACK);
-        offscreen.fillOval(computerX(pt.getX())-2, computerY(pt.getY())-2, 5,5);
+        if (pt.isRed()) graphics.setColor(RED);
+        else graphics.setColor(BLACK);
+        graphics.fillOval(computerX(pt.getX())-2, computerY(pt.getY())-2, 5,5);
             // minus 3 so the center would be in the middle
-        paint(offscreen);
     }
     public void drawLine(Color color, Point pt1, Point pt2)
     {
+        if (recording != null) {
+            recording.line(colorIndex(color), pt1, pt2);
+            return;
+        }
         setPenColor(color);
         offscreen.drawLine(computerX(pt1.getX()), computerY(pt1.getY()),
                 computerX(pt2.getX()), computerY(pt2.getY()));
         paint(offscreen);
     }
 
+    private int colorIndex(Color color) {
+        for (int i = 0; i < palette.length; i++)
+            if (palette[i].equals(color)) return i;
+        return 0; // every algorithm draws with the colors above, black if not
+    }
+
+
+    // record and replay the animation
+    /**
+     * Sends the draw calls to the trace instead of the canvas
+     * @param trace the trace being recorded
+     */
+    void startRecording(StepTrace trace) { recording = trace; }
+    void stopRecording() { recording = null; }
+
+    /**
+     * Draws a recorded frame and displays it
+     * Frames are meant to be drawn in order, frames in between are skipped by only updating the point colors
+     * @param trace the recorded animation
+     * @param frame the index of the frame
+     */
+    public void drawFrame(StepTrace trace, int frame)
+    {
+        if (trace != replaying || frame <= replayedFrame) {
+            // start from the first frame again
+            replaying = trace;
+            replayedFrame = -1;
+            clearPointLayer();
+        }
+        for (int i = replayedFrame + 1; i < frame; i++)
+            trace.replay(i, framePainter, false);
+        clear();
+        trace.replay(frame, framePainter, true); // lines go on the canvas, points on the point layer
+        replayedFrame = frame;
+        offscreen.drawImage(pointLayer, 0, 0, null);
+        display();
+    }
+
+    private void clearPointLayer() {
+        if (pointLayer == null) {
+            pointLayer = new BufferedImage(canvasSize, canvasSize, BufferedImage.TYPE_INT_ARGB);
+            pointGraphics = pointLayer.createGraphics();
+            pointGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        pointGraphics.setComposite(AlphaComposite.Clear);
+        pointGraphics.fillRect(0, 0, canvasSize, canvasSize);
+        pointGraphics.setComposite(AlphaComposite.SrcOver);
+    }
+
+
+    // the live convex hull while placing points
+    /**
+     * Adds a point to the canvas and to the live convex hull
+     * Only the new point is drawn on the point layer, so placing a point doesn't redraw the others
+     * @param pt the point placed
+     */
+    private void placePoint(Point pt)
+    {
+        if (pointLayer == null) clearPointLayer();
+        drawPoint(pointGraphics, pt);
+        points.add(pt);
+        liveHull.add(pt);
+    }
+
+    /**
+     * Draws the points placed so far with their convex hull on top
+     */
+    private void showLiveHull()
+    {
+        clear();
+        if (pointLayer != null) offscreen.drawImage(pointLayer, 0, 0, null);
+        Point[] convex = liveHull.getResult();
+        setPenColor(LIGHT_GRAY);
+        for (int i = 0; i < convex.length && convex.length > 1; i++) {
+            Point next = convex[(i + 1) % convex.length];
+            offscreen.drawLine(computerX(convex[i].getX()), computerY(convex[i].getY()),
+                    computerX(next.getX()), computerY(next.getY()));
+        }
+        display();
+    }
+
+    /**
+     * @return the convex hull of the points placed so far
+     */
+    public OnlineHull getLiveHull() { return liveHull; }
+
+    private class FramePainter implements StepTrace.Visitor {
+        @Override
+        public void point(int index, boolean isRed) {
+            Point pt = replaying.getPoint(index);
+            pointGraphics.setColor(isRed ? RED : BLACK);
+            pointGraphics.fillOval(computerX(pt.getX())-2, computerY(pt.getY())-2, 5,5);
+        }
+
+        @Override
+        public void line(int color, int x1, int y1, int x2, int y2) {
+            setPenColor(palette[color]);
+            offscreen.drawLine(computerX(x1), computerY(y1), computerX(x2), computerY(y2));
+        }
+    }
+
     // user coordinate is where y is 0 at the bottom, computer coordinate is where y is 0 at the top
     // converts from computer coordinates to user coordinates
     public int userX(int x){ return x;}
@@ -90,23 +216,25 @@ public class AnimationArea extends Canvas implements MouseListener
 
     public void random(HashSet<Point> points) {
         this.points= points;
-        clear();
+        liveHull = new OnlineHull();
+        clearPointLayer();
         int range = canvasSize- 50;
         int numPts = (int) (Math.random()*50) + 75;
         for (int i = 0; i < numPts; i++)
         {
             int x = (int) (Math.random()*range) + 25;
             int y = (int) (Math.random()*range) + 25;
-            Point tempPt = new Point(x, y);
-            drawPoint(tempPt);
-            points.add(tempPt);
+            placePoint(new Point(x, y));
         }
-        display();
+        showLiveHull();
     }
     public void reset(HashSet<Point> points) {
         clear();
         isAnimationMode = false;
         this.points = points;
+        liveHull = new OnlineHull();
+        replaying = null;
+        clearPointLayer();
         display();
     }
 
@@ -127,10 +255,8 @@ public class AnimationArea extends Canvas implements MouseListener
         // System.out.println(userX(e.getX())+ " " + userY(e.getY())); // for debugging purpose
         if (isAnimationMode) return;
         synchronized (mouseLock){
-            Point tempPt = new Point(userX(e.getX()), userY(e.getY()));
-            drawPoint(tempPt);
-            points.add(tempPt);
-            display();
+            placePoint(new Point(userX(e.getX()), userY(e.getY())));
+            showLiveHull();
             // System.out.println(tempPt.getX()+ " " + tempPt.getY()); // for debugging purpose
         }
     }
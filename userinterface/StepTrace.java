@@ -0,0 +1,406 @@
+package userinterface;
+
+import algorithms.ConvexHullAlgorithm;
+import setup.Point;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Runs an algorithm and records what every step draws, so the animation only has to replay the frames
+ * Frames are recorded one at a time, so the animation can replay a frame as soon as it is recorded
+ * Everything is stored in one int array:
+ *      a point is stored only when its color changes, as one int holding its index and whether it is red
+ *      the lines are stored only where they differ from the lines of the frame before, as splices:
+ *          where the lines change, how many lines of the frame before are removed there, and the lines added,
+ *          so pushing or popping a stack adds or removes one line instead of storing the whole stack again
+ *      a line is stored as one int holding its color, followed by the index of its two points
+ *      a line between points that are not part of the input is stored with the coordinates instead
+ * The same trace could be replayed at any speed
+ */
+public class StepTrace {
+    private static final int END = 0;
+    private static final int POINT = 1;
+    private static final int LINE = 2;
+    private static final int FREE_LINE = 3;
+    private static final int SPLICE = 4;
+    private static final int OP_BITS = 3;
+    private static final int RECORD = 5; // the ints a line takes while the frames are compared, op and four values
+    private static final int RESYNC = 4; // how many lines a splice looks ahead for the frames to match again
+    private static final int MAX_FRAMES = 1 << 20; // stops an algorithm that never completes from recording forever
+
+    /**
+     * What a frame is replayed into
+     */
+    public interface Visitor {
+        /**
+         * @param index the index of the point in the input
+         * @param isRed whether the point is now red
+         */
+        void point(int index, boolean isRed);
+
+        /**
+         * @param color the index of the color in the palette of the canvas
+         * @param x1 the x of the first point
+         * @param y1 the y of the first point
+         * @param x2 the x of the second point
+         * @param y2 the y of the second point
+         */
+        void line(int color, int x1, int y1, int x2, int y2);
+    }
+
+    private final ConvexHullAlgorithm algorithm;
+    private final AnimationArea animationArea;
+    private final Point[] points; // in the order given, the algorithm may reorder its own array
+    private final IdentityHashMap<Point, Integer> indexOf;
+    private final byte[] recordedColor; // the color of each point the trace last stored, -1 if never stored
+    private int[] ops;
+    private int size;
+    private int[] frameStarts;
+    private int frameCount;
+    private boolean isComplete;
+
+    // the order the points were drawn in the last frame, most algorithms draw them in the same order every frame
+    private final Point[] drawOrder;
+    private final int[] drawOrderIndex;
+    private int drawPosition;
+
+    // the lines of the frame being recorded and of the frame before, RECORD ints each
+    private int[] frameLines = new int[16 * RECORD], shownLines = new int[16 * RECORD];
+    private Point[] frameEnds = new Point[32], shownEnds = new Point[32]; // the two points of each line
+    private int frameLineCount, shownLineCount;
+    private int lineShift; // how far the lines of the frame before were found from where they are drawn now
+
+    // the lines of the last frame replayed
+    private int[] replayLines = new int[16 * RECORD];
+    private int replayLineCount;
+    private int replayedFrame = -1;
+
+    private StepTrace(ConvexHullAlgorithm algorithm, Point[] points, AnimationArea animationArea) {
+        this.algorithm = algorithm;
+        this.animationArea = animationArea;
+        this.points = points.clone();
+        indexOf = new IdentityHashMap<>(points.length);
+        for (int i = 0; i < points.length; i++)
+            indexOf.put(points[i], i);
+        recordedColor = new byte[points.length];
+        Arrays.fill(recordedColor, (byte) -1);
+        drawOrder = new Point[points.length];
+        drawOrderIndex = new int[points.length];
+        ops = new int[Math.max(16, points.length * 2)];
+        frameStarts = new int[16];
+    }
+
+    /**
+     * Gets the algorithm ready to be recorded, no frame is recorded yet
+     * @param algorithm the algorithm to record
+     * @param points the points the algorithm works on
+     * @param animationArea the canvas, nothing is drawn on it while recording
+     * @return the trace, recordFrame adds the frames
+     */
+    public static StepTrace start(ConvexHullAlgorithm algorithm, Point[] points, AnimationArea animationArea) {
+        return new StepTrace(algorithm, points, animationArea);
+    }
+
+    /**
+     * Runs the animation of the algorithm from start to end and records every frame
+     * @param algorithm the algorithm to record, runs until it is complete
+     * @param points the points the algorithm works on
+     * @param animationArea the canvas, nothing is drawn on it while recording
+     * @return the recorded frames
+     */
+    public static StepTrace record(ConvexHullAlgorithm algorithm, Point[] points, AnimationArea animationArea) {
+        StepTrace trace = start(algorithm, points, animationArea);
+        while (trace.recordFrame()) {
+            // every frame is recorded before the trace is replayed
+        }
+        return trace;
+    }
+
+    /**
+     * Runs one step of the animation and records it as the next frame
+     * @return false if the algorithm was already complete, so no frame was recorded
+     */
+    public boolean recordFrame() {
+        if (isComplete) return false;
+        animationArea.startRecording(this);
+        try {
+            algorithm.draw(animationArea);
+            endFrame();
+        }
+        finally {
+            animationArea.stopRecording();
+        }
+        isComplete = algorithm.isComplete() || frameCount >= MAX_FRAMES;
+        return true;
+    }
+
+    /**
+     * @return whether every frame of the algorithm is recorded
+     */
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * @return the number of frames recorded
+     */
+    public int frameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return the number of points the algorithm worked on
+     */
+    public int pointCount() {
+        return points.length;
+    }
+
+    /**
+     * @return the size of the trace in bytes
+     */
+    public long byteSize() {
+        return (long) size * Integer.BYTES + (long) frameCount * Integer.BYTES;
+    }
+
+    /**
+     * @param index the index of the point
+     * @return the point at the index
+     */
+    public Point getPoint(int index) {
+        return points[index];
+    }
+
+    /**
+     * Records that a point is drawn, only stored when its color changed
+     * @param pt the point drawn
+     */
+    void point(Point pt) {
+        int index;
+        if (drawPosition < drawOrder.length && drawOrder[drawPosition] == pt) index = drawOrderIndex[drawPosition];
+        else {
+            Integer found = indexOf.get(pt);
+            if (found == null) return; // not one of the points, nothing to keep track of
+            index = found;
+            if (drawPosition < drawOrder.length) {
+                drawOrder[drawPosition] = pt;
+                drawOrderIndex[drawPosition] = index;
+            }
+        }
+        drawPosition++;
+        byte color = (byte) (pt.isRed() ? 1 : 0);
+        if (recordedColor[index] == color) return;
+        recordedColor[index] = color;
+        add(POINT | (color << OP_BITS) | (index << (OP_BITS + 1)));
+    }
+
+    /**
+     * Records that a line is drawn, it is only stored if the lines of the frame differ from the frame before
+     * @param color the index of the color in the palette of the canvas
+     * @param pt1 the first point of the line
+     * @param pt2 the second point of the line
+     */
+    void line(int color, Point pt1, Point pt2) {
+        if (frameLineCount * RECORD == frameLines.length) {
+            frameLines = Arrays.copyOf(frameLines, frameLines.length * 2);
+            frameEnds = Arrays.copyOf(frameEnds, frameEnds.length * 2);
+        }
+        int at = frameLineCount * RECORD;
+        int line = frameLineCount++;
+        frameEnds[2 * line] = pt1;
+        frameEnds[2 * line + 1] = pt2;
+        // the same line close to the same place in the frame before has its indices found already,
+        // lines moving up or down because a stack grew or shrank are found by trying the shift again
+        if (isShown(line + lineShift, color, pt1, pt2)) {
+            System.arraycopy(shownLines, (line + lineShift) * RECORD, frameLines, at, RECORD);
+            return;
+        }
+        for (int shift = -RESYNC; shift <= RESYNC; shift++)
+            if (isShown(line + shift, color, pt1, pt2)) {
+                lineShift = shift;
+                System.arraycopy(shownLines, (line + shift) * RECORD, frameLines, at, RECORD);
+                return;
+            }
+        Integer index1 = indexOf.get(pt1);
+        Integer index2 = indexOf.get(pt2);
+        if (index1 != null && index2 != null) {
+            frameLines[at] = LINE | (color << OP_BITS);
+            frameLines[at + 1] = index1;
+            frameLines[at + 2] = index2;
+            frameLines[at + 3] = 0;
+            frameLines[at + 4] = 0;
+        }
+        else {
+            frameLines[at] = FREE_LINE | (color << OP_BITS);
+            frameLines[at + 1] = pt1.getX();
+            frameLines[at + 2] = pt1.getY();
+            frameLines[at + 3] = pt2.getX();
+            frameLines[at + 4] = pt2.getY();
+        }
+    }
+
+    private boolean isShown(int shown, int color, Point pt1, Point pt2) {
+        return shown >= 0 && shown < shownLineCount && shownEnds[2 * shown] == pt1 && shownEnds[2 * shown + 1] == pt2
+                && shownLines[shown * RECORD] >>> OP_BITS == color;
+    }
+
+    /**
+     * Stores how the lines differ from the frame before and marks the end of the frame
+     */
+    private void endFrame() {
+        int common = Math.min(frameLineCount, shownLineCount);
+        int tail = 0;
+        while (tail < common && sameLine(frameLines, frameLineCount - 1 - tail, shownLines, shownLineCount - 1 - tail)) tail++;
+        // walk both frames together, every stretch that doesn't match is stored as a splice
+        int line = 0, shown = 0;
+        int frameEnd = frameLineCount - tail, shownEnd = shownLineCount - tail;
+        while (line < frameEnd || shown < shownEnd) {
+            if (line < frameEnd && shown < shownEnd && sameLine(frameLines, line, shownLines, shown)) {
+                line++;
+                shown++;
+                continue;
+            }
+            // the closest place the frames match again, anything further is stored as changed up to the tail
+            int added = frameEnd - line, removed = shownEnd - shown;
+            search:
+            for (int skipped = 1; skipped <= 2 * RESYNC; skipped++)
+                for (int add = Math.max(0, skipped - RESYNC); add <= Math.min(skipped, RESYNC); add++)
+                    if (line + add < frameEnd && shown + skipped - add < shownEnd
+                            && sameLine(frameLines, line + add, shownLines, shown + skipped - add)) {
+                        added = add;
+                        removed = skipped - add;
+                        break search;
+                    }
+            addSplice(line, removed, added);
+            line += added;
+            shown += removed;
+        }
+        // the lines of this frame are what the next frame is compared to
+        int[] swapLines = shownLines;
+        shownLines = frameLines;
+        frameLines = swapLines;
+        Point[] swapEnds = shownEnds;
+        shownEnds = frameEnds;
+        frameEnds = swapEnds;
+        shownLineCount = frameLineCount;
+        frameLineCount = 0;
+        lineShift = 0;
+        drawPosition = 0;
+
+        if (frameCount == frameStarts.length) frameStarts = Arrays.copyOf(frameStarts, frameCount * 2);
+        add(END);
+        frameStarts[frameCount++] = size;
+    }
+
+    /**
+     * Stores that some lines are replaced by the lines of the frame at the same place
+     * @param at where the lines are replaced, counted in the lines of the frame
+     * @param removed how many lines of the frame before are removed
+     * @param added how many lines of the frame are added
+     */
+    private void addSplice(int at, int removed, int added) {
+        add(SPLICE);
+        add(at);
+        add(removed);
+        add(added);
+        for (int line = at; line < at + added; line++) {
+            int i = line * RECORD;
+            add(frameLines[i]);
+            add(frameLines[i + 1]);
+            add(frameLines[i + 2]);
+            if ((frameLines[i] & ((1 << OP_BITS) - 1)) == FREE_LINE) {
+                add(frameLines[i + 3]);
+                add(frameLines[i + 4]);
+            }
+        }
+    }
+
+    private static boolean sameLine(int[] lines1, int line1, int[] lines2, int line2) {
+        return Arrays.equals(lines1, line1 * RECORD, (line1 + 1) * RECORD, lines2, line2 * RECORD, (line2 + 1) * RECORD);
+    }
+
+    private void add(int op) {
+        if (size == ops.length) ops = Arrays.copyOf(ops, size * 2);
+        ops[size++] = op;
+    }
+
+    /**
+     * Replays one frame
+     * The lines are kept from one frame to the next, so frames are meant to be replayed in order,
+     * going back to an earlier frame applies the changes to the lines from the first frame again
+     * @param frame the index of the frame
+     * @param visitor what the frame is replayed into
+     * @param withLines false to only replay the changes to the points, used when frames are skipped
+     */
+    public void replay(int frame, Visitor visitor, boolean withLines) {
+        if (frame <= replayedFrame) {
+            replayLineCount = 0;
+            replayedFrame = -1;
+        }
+        for (int skipped = replayedFrame + 1; skipped < frame; skipped++)
+            apply(skipped, null);
+        apply(frame, visitor);
+        replayedFrame = frame;
+        if (!withLines) return;
+        for (int line = 0; line < replayLineCount; line++) {
+            int at = line * RECORD;
+            int op = replayLines[at];
+            if ((op & ((1 << OP_BITS) - 1)) == LINE) {
+                Point pt1 = points[replayLines[at + 1]];
+                Point pt2 = points[replayLines[at + 2]];
+                visitor.line(op >>> OP_BITS, pt1.getX(), pt1.getY(), pt2.getX(), pt2.getY());
+            }
+            else
+                visitor.line(op >>> OP_BITS, replayLines[at + 1], replayLines[at + 2], replayLines[at + 3], replayLines[at + 4]);
+        }
+    }
+
+    /**
+     * Applies the changes of one frame to the lines, and sends the changes to the points to the visitor
+     * @param visitor null to only apply the changes to the lines
+     */
+    private void apply(int frame, Visitor visitor) {
+        int i = (frame == 0) ? 0 : frameStarts[frame - 1];
+        while (true) {
+            int op = ops[i++];
+            switch (op & ((1 << OP_BITS) - 1)) {
+                case END:
+                    return;
+                case POINT:
+                    if (visitor != null) visitor.point(op >>> (OP_BITS + 1), (op >>> OP_BITS & 1) == 1);
+                    break;
+                default: // SPLICE
+                    i = splice(i);
+            }
+        }
+    }
+
+    /**
+     * Replaces the lines removed with the lines added
+     * @param i where the splice starts in the trace, after its op
+     * @return where the next op starts
+     */
+    private int splice(int i) {
+        int at = ops[i], removed = ops[i+1], added = ops[i+2];
+        i += 3;
+        int count = replayLineCount - removed + added;
+        if (count * RECORD > replayLines.length)
+            replayLines = Arrays.copyOf(replayLines, Math.max(count * RECORD, replayLines.length * 2));
+        // move the lines after the removed ones to where the added ones end
+        System.arraycopy(replayLines, (at + removed) * RECORD, replayLines, (at + added) * RECORD,
+                (replayLineCount - at - removed) * RECORD);
+        for (int line = at; line < at + added; line++) {
+            int j = line * RECORD;
+            int op = ops[i++];
+            replayLines[j] = op;
+            replayLines[j + 1] = ops[i++];
+            replayLines[j + 2] = ops[i++];
+            if ((op & ((1 << OP_BITS) - 1)) == FREE_LINE) {
+                replayLines[j + 3] = ops[i++];
+                replayLines[j + 4] = ops[i++];
+            }
+        }
+        replayLineCount = count;
+        return i;
+    }
+}
@@ -26,6 +26,7 @@ public class Visualizer extends JFrame {
     AnimationArea animationArea;
     HashSet<Point> points;
     Timer timer;
+    int frame; // the next frame of the trace to draw
 
     public Visualizer() {
         JPanel thePanel = new JPanel();
@@ -43,8 +44,8 @@ public class Visualizer extends JFrame {
         visualize.setFont(new Font("TimesRoman", Font.BOLD, 30));
         visualize.addActionListener(lForButton);
 
-        String[] choices = { "Chan's Algorithm","Marriage before Conquest", "Incremental", "Monotone Chain", "Divide and Conquer" ,
-                "Quick Hull" , "Graham Scan",  "Jarvis March"};
+        String[] choices = { "Chan's Algorithm","Marriage before Conquest", "Incremental", "Randomized Incremental", "Monotone Chain", "Divide and Conquer" ,
+                "Quick Hull" , "Graham Scan",  "Jarvis March", "Grid Hull", "Auto"};
         options = new JComboBox<>(choices);
         thePanel.add(options);
         options.setBounds(610, 110, 180, 50);
@@ -131,15 +132,24 @@ public class Visualizer extends JFrame {
                 speed.setEnabled(false);
 
                 switch (Objects.requireNonNull(userChoice)) {
+                    case "Auto":
+                        algorithm = new AutoHull(pts);
+                        break;
                     case "Marriage before Conquest":
                         algorithm = new MarriageBeforeConquest(pts);
                         break;
+                    case "Grid Hull":
+                        algorithm = new GridHull(pts);
+                        break;
                     case "Chan's Algorithm":
                         algorithm = new ChanAlgorithm(pts);
                         break;
                     case "Incremental":
                         algorithm = new Incremental(pts);
                         break;
+                    case "Randomized Incremental":
+                        algorithm = new RandomizedIncremental(pts);
+                        break;
                     case "Monotone Chain":
                         algorithm = new MonotoneChain(pts);
                         break;
@@ -158,19 +168,21 @@ public class Visualizer extends JFrame {
                     default:
                         throw new IllegalStateException("Unexpected value: " + Objects.requireNonNull(userChoice));
                 }
-                timer = new Timer((int) (algorithm.getTime()*(speedVal/100.0)), actionEvent -> runAnimation(algorithm));
+                // the algorithm is recorded one frame ahead of the replay, so the animation starts right away
+                StepTrace trace = StepTrace.start(algorithm, pts, animationArea);
+                frame = 0;
+                timer = new Timer((int) (algorithm.getTime()*(speedVal/100.0)), actionEvent -> runAnimation(trace));
                 timer.start();
             }
         }
     }
 
-    private void runAnimation(ConvexHullAlgorithm algorithm)
+    private void runAnimation(StepTrace trace)
     {
-        assert algorithm != null : "Algorithm shouldn't be null";
-        animationArea.clear();
-        algorithm.draw(animationArea);
-        animationArea.display();
-        if (algorithm.isComplete())
+        assert trace != null : "Trace shouldn't be null";
+        if (frame == trace.frameCount()) trace.recordFrame();
+        animationArea.drawFrame(trace, frame++);
+        if (trace.isComplete() && frame == trace.frameCount())
         {
             timer.stop();
             reset.setText("Reset");